@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.utils.ErrorResponse;
 
+import javax.validation.ConstraintViolationException;
 
 import static ru.practicum.shareit.utils.Constants.UNKNOWN_ERROR_MESSAGE;
 
@@ -15,7 +16,8 @@ import static ru.practicum.shareit.utils.Constants.UNKNOWN_ERROR_MESSAGE;
 @Slf4j
 public class ErrorHandler {
 
-    @ExceptionHandler({MethodArgumentNotValidException.class, IllegalArgumentException.class})
+    @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class,
+            IllegalArgumentException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(RuntimeException e) {
         log.warn("Произошла ошибка валидации: {}", e.getMessage());
@@ -9,7 +9,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -28,29 +32,47 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingDto);
     }
 
+    public ResponseEntity<Object> createBookings(List<BookingCreationDto> bookingDtos, long userId) {
+        return post("/batch", userId, bookingDtos);
+    }
+
     public ResponseEntity<Object> setBookingStatus(long userId, long bookingId, boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
+    public ResponseEntity<Object> setBookingStatuses(long userId, List<BookingStatusChangeDto> changes) {
+        return patch("/batch", userId, changes);
+    }
+
     public ResponseEntity<Object> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBookerId(long userId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByBookerId(long userId, String state, int from, int size,
+                                                        LocalDateTime afterStart, Long afterId) {
+        return getBookings("", userId, state, from, size, afterStart, afterId);
+    }
+
+    public ResponseEntity<Object> getBookingsByOwnerId(long userId, String state, int from, int size,
+                                                       LocalDateTime afterStart, Long afterId) {
+        return getBookings("/owner", userId, state, from, size, afterStart, afterId);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerId(long userId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    private ResponseEntity<Object> getBookings(String path, long userId, String state, int from, int size,
+                                               LocalDateTime afterStart, Long afterId) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+
+        if (afterStart == null) {
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
+
+        parameters.put("afterStart", afterStart);
+        parameters.put("afterId", afterId);
+        return get(path + "?state={state}&from={from}&size={size}&afterStart={afterStart}&afterId={afterId}", userId,
+                parameters);
     }
 }
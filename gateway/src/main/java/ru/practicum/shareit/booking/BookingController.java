@@ -2,14 +2,21 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static ru.practicum.shareit.utils.Constants.*;
 
@@ -30,6 +37,14 @@ public class BookingController {
         return bookingClient.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createBookings(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                 List<@Valid @NotNull BookingCreationDto> bookingDtos,
+                                                 @RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId) {
+        log.info("Попытка забронировать {} вещей пользователем с id = {}", bookingDtos.size(), userId);
+        return bookingClient.createBookings(bookingDtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> setBookingStatus(@PathVariable @Positive long bookingId, @RequestParam boolean approved,
                                                    @RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId) {
@@ -37,6 +52,14 @@ public class BookingController {
         return bookingClient.setBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> setBookingStatuses(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                     List<@Valid @NotNull BookingStatusChangeDto> changes,
+                                                     @RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId) {
+        log.info("Попытка изменить статусы {} бронирований пользователем с id = {}", changes.size(), userId);
+        return bookingClient.setBookingStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@PathVariable @Positive long bookingId,
                                              @RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId) {
@@ -48,19 +71,35 @@ public class BookingController {
     public ResponseEntity<Object> getBookingsByBookerId(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
                                                         @RequestParam(defaultValue = DEFAULT_SEARCH_VALUE) String state,
                                                         @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
-                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime afterStart,
+                                                        @RequestParam(required = false) @Positive Long afterId) {
         log.info("Попытка получить {} бронирований начиная с {} со статусом {} автора бронирований с id = {}", size,
                 from, state, userId);
-        return bookingClient.getBookingsByBookerId(userId, state, from, size);
+        checkCursor(afterStart, afterId);
+        return bookingClient.getBookingsByBookerId(userId, state, from, size, afterStart, afterId);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwnerId(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
                                                        @RequestParam(defaultValue = DEFAULT_SEARCH_VALUE) String state,
                                                        @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
-                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                       LocalDateTime afterStart,
+                                                       @RequestParam(required = false) @Positive Long afterId) {
         log.info("Попытка получить {} бронирований начиная с {} со статусом {} владельца вещей с id = {}", size, from,
                 state, userId);
-        return bookingClient.getBookingsByOwnerId(userId, state, from, size);
+        checkCursor(afterStart, afterId);
+        return bookingClient.getBookingsByOwnerId(userId, state, from, size, afterStart, afterId);
+    }
+
+    private void checkCursor(LocalDateTime afterStart, Long afterId) {
+        if ((afterStart == null) != (afterId == null)) {
+            throw new IllegalArgumentException(INCOMPLETE_BOOKING_CURSOR_MESSAGE);
+        }
     }
 }
@@ -11,6 +11,8 @@ import ru.practicum.shareit.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -45,13 +47,50 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(long userId, String text, int from, int size) {
+    public ResponseEntity<Object> searchItems(long userId, String text, int from, int size, boolean fuzzy,
+                                              LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "fuzzy", fuzzy
+        ));
+
+        if (start == null) {
+            return get("/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}", userId, parameters);
+        }
+
+        parameters.put("start", start);
+        parameters.put("end", end);
+        return get("/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}&start={start}&end={end}", userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> suggestItemNames(long userId, String text, int size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
+                "size", size
+        );
+        return get("/suggest?text={text}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to,
+                                                  boolean includeWaiting) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to,
+                "includeWaiting", includeWaiting
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}&includeWaiting={includeWaiting}", userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/" + itemId + "/comments?from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(CommentDto commentDto, long userId, long itemId) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.utils.Update;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.utils.Constants.*;
 
@@ -58,9 +60,58 @@ public class ItemController {
     public ResponseEntity<Object> searchItems(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
                                               @RequestParam String text,
                                               @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
-                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size,
+                                              @RequestParam(defaultValue = "false") boolean fuzzy,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         log.info("Попытка найти {} вещей начиная с {} по поисковой строке: {}", size, from, text);
-        return itemClient.searchItems(userId, text, from, size);
+
+        if ((start == null) != (end == null)) {
+            throw new IllegalArgumentException(INCOMPLETE_SEARCH_WINDOW_MESSAGE);
+        }
+
+        if (start != null && !start.isBefore(end)) {
+            throw new IllegalArgumentException(WRONG_AVAILABILITY_WINDOW_MESSAGE);
+        }
+
+        return itemClient.searchItems(userId, text, from, size, fuzzy, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItemNames(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+                                                   @RequestParam String text,
+                                                   @RequestParam(defaultValue = DEFAULT_SUGGESTIONS_SIZE) @Positive
+                                                   int size) {
+        log.info("Попытка получить {} подсказок названий вещей по префиксу: {}", size, text);
+        return itemClient.suggestItemNames(userId, text, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+                                                  @PathVariable @Positive long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to,
+                                                  @RequestParam(defaultValue = "false") boolean includeWaiting) {
+        log.info("Попытка получить свободное время вещи с id = {} с {} по {}", itemId, from, to);
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException(WRONG_AVAILABILITY_WINDOW_MESSAGE);
+        }
+
+        return itemClient.getAvailability(userId, itemId, from, to, includeWaiting);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+                                              @PathVariable @Positive long itemId,
+                                              @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
+                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+        log.info("Попытка получить {} отзывов на вещь с id = {} начиная с {} отзыва", size, itemId, from);
+        return itemClient.getComments(userId, itemId, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
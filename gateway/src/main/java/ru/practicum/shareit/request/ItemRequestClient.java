@@ -44,4 +44,19 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getRequestMatches(long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/matches?from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getItemMatches(long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/all/matches?from={from}&size={size}", userId, parameters);
+    }
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +11,7 @@ import ru.practicum.shareit.request.dto.CreateItemRequestDto;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.utils.Constants.*;
 
@@ -20,6 +22,7 @@ import static ru.practicum.shareit.utils.Constants.*;
 @Validated
 public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
+    private final ItemRequestFeedClient itemRequestFeedClient;
 
     @PostMapping
     public ResponseEntity<Object> createItemRequest(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
@@ -48,4 +51,30 @@ public class ItemRequestController {
         log.info("Попытка получить {} запросов начиная с {}", size, from);
         return itemRequestClient.getRequests(userId, from, size);
     }
+
+    @GetMapping(path = "/stream", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public CompletableFuture<Object> subscribeToRequests(
+            @RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER_NAME, required = false) Long lastEventId) {
+        log.info("Попытка подписаться на поток запросов пользователем с id = {}", userId);
+        return itemRequestFeedClient.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/matches")
+    public ResponseEntity<Object> getRequestMatches(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+                                                    @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
+                                                    @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+        log.info("Попытка получить {} вещей, подобранных к запросам пользователя с id = {}, начиная с {}", size,
+                userId, from);
+        return itemRequestClient.getRequestMatches(userId, from, size);
+    }
+
+    @GetMapping("/all/matches")
+    public ResponseEntity<Object> getItemMatches(@RequestHeader(HEADER_WITH_USER_ID_NAME) @Positive long userId,
+                                                 @RequestParam(defaultValue = DEFAULT_START_PAGE) @Min(0) int from,
+                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) @Positive int size) {
+        log.info("Попытка получить {} запросов, подобранных к вещам пользователя с id = {}, начиная с {}", size,
+                userId, from);
+        return itemRequestClient.getItemMatches(userId, from, size);
+    }
 }
@@ -0,0 +1,257 @@
+package ru.practicum.shareit.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static ru.practicum.shareit.utils.Constants.HEADER_WITH_USER_ID_NAME;
+import static ru.practicum.shareit.utils.Constants.LAST_EVENT_ID_HEADER_NAME;
+
+/**
+ * Пересылает клиенту поток событий о запросах с сервера.
+ * Соединение с сервером асинхронное и не занимает поток, пока событий нет. Следующая строка потока
+ * запрашивается только после отправки предыдущей клиенту, поэтому медленный клиент притормаживает чтение
+ * с сервера, а не копит события в памяти шлюза. Ответ контроллеру возвращается асинхронно, когда сервер
+ * ответил статусом, а отправка клиенту выполняется в отдельном ограниченном пуле, чтобы медленный клиент
+ * не занимал потоки HttpClient, читающие все потоки с сервера. Клиент отключается, если отправка ему длится
+ * дольше shareit.request.feed.send-timeout или если пул отправки переполнен: зависшая запись занимает поток
+ * пула, пока ее не прервет сам контейнер, и при переполнении новые события не копятся без ограничений.
+ */
+@Component
+@Slf4j
+public class ItemRequestFeedClient {
+    private final HttpClient httpClient;
+    private final URI streamUri;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final ExecutorService relayExecutor;
+
+    public ItemRequestFeedClient(@Value("${shareit-server.url}") String serverUrl,
+                                 @Value("${shareit.request.feed.timeout}") Duration timeout,
+                                 @Value("${shareit.request.feed.send-timeout}") Duration sendTimeout,
+                                 @Value("${shareit.request.feed.relay-threads}") int relayThreads,
+                                 @Value("${shareit.request.feed.relay-queue-size}") int relayQueueSize) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.streamUri = URI.create(serverUrl + "/requests/stream");
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.relayExecutor = new ThreadPoolExecutor(relayThreads, relayThreads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(relayQueueSize));
+    }
+
+    public CompletableFuture<Object> subscribe(long userId, Long lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(streamUri)
+                .header(HEADER_WITH_USER_ID_NAME, String.valueOf(userId))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE);
+
+        if (lastEventId != null) {
+            request.header(LAST_EVENT_ID_HEADER_NAME, String.valueOf(lastEventId));
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        EventRelay relay = new EventRelay(emitter, relayExecutor, sendTimeout);
+        CompletableFuture<Object> result = new CompletableFuture<>();
+
+        httpClient.sendAsync(request.build(), info -> {
+            if (info.statusCode() != HttpStatus.OK.value()) {
+                return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+            }
+
+            emitter.onCompletion(relay::cancel);
+            emitter.onTimeout(relay::cancel);
+            emitter.onError(e -> relay.cancel());
+            result.complete(emitter);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.fromLineSubscriber(relay),
+                    ignored -> "");
+        }).whenComplete((response, e) -> {
+            if (e != null) {
+                // соединение оборвалось до ответа или уже во время пересылки потока
+                if (!result.completeExceptionally(e)) {
+                    relay.close();
+                }
+            } else if (response.statusCode() != HttpStatus.OK.value()) {
+                // ошибки сервера, например неизвестный пользователь, возвращаются клиенту как есть
+                result.complete(ResponseEntity.status(response.statusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(response.body()));
+            }
+        });
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+
+    private static class EventRelay implements Flow.Subscriber<String> {
+        private final SseEmitter emitter;
+        private final Executor executor;
+        private final Duration sendTimeout;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean closed;
+        // сигналы подписчику приходят последовательно, и цепочка сохраняет их порядок в пуле отправки
+        private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+        private String id;
+        private String name;
+        private StringBuilder data;
+
+        EventRelay(SseEmitter emitter, Executor executor, Duration sendTimeout) {
+            this.emitter = emitter;
+            this.executor = executor;
+            this.sendTimeout = sendTimeout;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String line) {
+            relay(() -> relayLine(line));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            relay(() -> {
+                log.warn("Прервано чтение потока запросов с сервера: {}", throwable.getMessage());
+                emitter.complete();
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            relay(emitter::complete);
+        }
+
+        void close() {
+            // после идущей отправки, которая держит монитор emitter
+            relay(emitter::complete);
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        private void relay(Runnable action) {
+            if (closed) {
+                return;
+            }
+
+            CompletableFuture<Void> sending = pending.thenRunAsync(action, this::execute);
+            pending = sending;
+            // сигналы идут по одному, поэтому отправка начинается сразу, если пул не переполнен
+            sending.copy()
+                    .orTimeout(sendTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        if (e instanceof TimeoutException && !closed) {
+                            closed = true;
+                            log.warn("Отправка события клиенту длится дольше {}, он будет отключен", sendTimeout);
+                            cancel();
+                            // зависшая отправка держит монитор emitter, поэтому соединение закрывается после нее
+                            sending.whenComplete((ignored, error) -> emitter.complete());
+                        }
+                        return null;
+                    });
+        }
+
+        private void execute(Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // цепочка отправок этого клиента обрывается, и следующие события ему не пересылаются
+                log.warn("Пул пересылки потока запросов переполнен, клиент будет отключен");
+                closed = true;
+                cancel();
+                emitter.complete();
+            }
+        }
+
+        private void relayLine(String line) {
+            try {
+                if (line.isEmpty()) {
+                    sendEvent();
+                } else if (line.startsWith(":")) {
+                    emitter.send(SseEmitter.event().comment(line.substring(1)));
+                } else {
+                    readField(line);
+                }
+
+                subscription.request(1);
+            } catch (IOException | IllegalStateException e) {
+                subscription.cancel();
+                emitter.complete();
+            }
+        }
+
+        private void readField(String line) {
+            int separator = line.indexOf(':');
+            String field = separator == -1 ? line : line.substring(0, separator);
+            String value = separator == -1 ? "" : line.substring(separator + 1).stripLeading();
+
+            switch (field) {
+                case "id":
+                    id = value;
+                    break;
+                case "event":
+                    name = value;
+                    break;
+                case "data":
+                    data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void sendEvent() throws IOException {
+            if (data != null) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event();
+
+                if (id != null) {
+                    event.id(id);
+                }
+
+                if (name != null) {
+                    event.name(name);
+                }
+
+                emitter.send(event.data(data.toString(), MediaType.APPLICATION_JSON));
+            }
+
+            id = null;
+            name = null;
+            data = null;
+        }
+    }
+}
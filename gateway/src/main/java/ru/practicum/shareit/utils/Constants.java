@@ -8,10 +8,17 @@ public class Constants {
             " быть пустым";
     public static final String NOT_EMPTY_EMAIL_MESSAGE = "Почта должна быть заполнена и не должна быть пустой";
     public static final String HEADER_WITH_USER_ID_NAME = "X-Sharer-User-Id";
+    public static final String LAST_EVENT_ID_HEADER_NAME = "Last-Event-ID";
     public static final String DEFAULT_PAGE_SIZE = "20";
     public static final String DEFAULT_START_PAGE = "0";
+    public static final String DEFAULT_SUGGESTIONS_SIZE = "10";
+    public static final int MAX_BATCH_SIZE = 100;
     public static final String WRONG_START_AND_END_BOOKING_DATES_MESSAGE = "Дата конца бронирования должна быть позже даты" +
             " начала бронирования";
+    public static final String WRONG_AVAILABILITY_WINDOW_MESSAGE = "Начало интервала должно быть раньше его конца";
+    public static final String INCOMPLETE_SEARCH_WINDOW_MESSAGE = "Параметры start и end должны передаваться вместе";
+    public static final String INCOMPLETE_BOOKING_CURSOR_MESSAGE = "Параметры курсора afterStart и afterId должны " +
+            "передаваться вместе";
     public static final String UNKNOWN_SEARCHING_STATE_MESSAGE = "Unknown state: %s";
     public static final String UNKNOWN_ERROR_MESSAGE = "Произошла неизвестная ошибка, попробуйте проверить корректность " +
             "всех данных запроса";
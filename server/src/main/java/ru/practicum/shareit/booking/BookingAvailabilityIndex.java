@@ -0,0 +1,217 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Подтвержденные бронирования каждой вещи, упорядоченные по дате начала.
+ * Ограничение ex_booking_approved_crossing гарантирует, что такие бронирования одной вещи не пересекаются,
+ * поэтому для проверки пересечения и поиска последнего/следующего бронирования достаточно одного
+ * поиска по ключу за O(log n).
+ * Индекс локален для экземпляра сервера: источником истины остается таблица bookings.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingAvailabilityIndex {
+    private final BookingStorage bookingStorage;
+    private final Object updateLock = new Object();
+    private volatile Map<Long, NavigableMap<LocalDateTime, BookingInterval>> intervalsByItem = new ConcurrentHashMap<>();
+    private List<Consumer<Map<Long, NavigableMap<LocalDateTime, BookingInterval>>>> updatesDuringRebuild;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, NavigableMap<LocalDateTime, BookingInterval>> built = new ConcurrentHashMap<>();
+
+        synchronized (updateLock) {
+            updatesDuringRebuild = new ArrayList<>();
+        }
+
+        try {
+            try (Stream<BookingInterval> intervals = bookingStorage.streamIntervalsByStatus(Status.APPROVED)) {
+                intervals.forEach(interval -> put(built, interval));
+            }
+
+            // изменения, закоммиченные во время чтения, могли не попасть в прочитанный снимок таблицы
+            synchronized (updateLock) {
+                updatesDuringRebuild.forEach(update -> update.accept(built));
+                intervalsByItem = built;
+            }
+        } finally {
+            synchronized (updateLock) {
+                updatesDuringRebuild = null;
+            }
+        }
+
+        ready = true;
+        log.info("Построен индекс подтвержденных бронирований для {} вещей", built.size());
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.availability-index.check-delay}",
+            fixedDelayString = "${shareit.booking.availability-index.check-delay}")
+    @Transactional(readOnly = true)
+    public void checkConsistency() {
+        if (!ready) {
+            return;
+        }
+
+        // бронирования читаются по одной вещи в порядке id и сливаются с упорядоченными id вещей индекса,
+        // поэтому в памяти одновременно находятся только бронирования одной вещи
+        long[] indexedItemIds = intervalsByItem.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int position = 0;
+        int mismatches = 0;
+
+        try (Stream<BookingInterval> intervals = bookingStorage.streamIntervalsByStatus(Status.APPROVED)) {
+            Iterator<BookingInterval> iterator = intervals.iterator();
+            BookingInterval interval = iterator.hasNext() ? iterator.next() : null;
+
+            while (interval != null) {
+                long itemId = interval.getItemId();
+                Set<BookingInterval> stored = new HashSet<>();
+
+                while (interval != null && interval.getItemId() == itemId) {
+                    stored.add(interval);
+                    interval = iterator.hasNext() ? iterator.next() : null;
+                }
+
+                for (; position < indexedItemIds.length && indexedItemIds[position] <= itemId; position++) {
+                    if (indexedItemIds[position] < itemId && !isConsistent(indexedItemIds[position], Set.of())) {
+                        mismatches++;
+                    }
+                }
+
+                if (!isConsistent(itemId, stored)) {
+                    mismatches++;
+                }
+            }
+        }
+
+        for (; position < indexedItemIds.length; position++) {
+            if (!isConsistent(indexedItemIds[position], Set.of())) {
+                mismatches++;
+            }
+        }
+
+        if (mismatches > 0) {
+            log.warn("Индекс подтвержденных бронирований расходился с базой данных для {} вещей и был перестроен " +
+                    "для них", mismatches);
+        }
+    }
+
+    public boolean hasCrossing(long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, BookingInterval> intervals = intervalsByItem.get(itemId);
+
+        if (intervals == null) {
+            return false;
+        }
+
+        Map.Entry<LocalDateTime, BookingInterval> candidate = intervals.lowerEntry(end);
+        return candidate != null && candidate.getValue().getEnd().isAfter(start);
+    }
+
+    public boolean isFree(long itemId, LocalDateTime time) {
+        BookingInterval last = findLast(itemId, time);
+        return last == null || !last.getEnd().isAfter(time);
+    }
+
+    public BookingInterval findLast(long itemId, LocalDateTime time) {
+        NavigableMap<LocalDateTime, BookingInterval> intervals = intervalsByItem.get(itemId);
+        Map.Entry<LocalDateTime, BookingInterval> entry = intervals == null ? null : intervals.floorEntry(time);
+        return entry == null ? null : entry.getValue();
+    }
+
+    public BookingInterval findNext(long itemId, LocalDateTime time) {
+        NavigableMap<LocalDateTime, BookingInterval> intervals = intervalsByItem.get(itemId);
+        Map.Entry<LocalDateTime, BookingInterval> entry = intervals == null ? null : intervals.higherEntry(time);
+        return entry == null ? null : entry.getValue();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        BookingInterval interval = event.getInterval();
+
+        update(Status.APPROVED.equals(event.getStatus())
+                ? index -> put(index, interval)
+                : index -> remove(index, interval));
+    }
+
+    private void update(Consumer<Map<Long, NavigableMap<LocalDateTime, BookingInterval>>> update) {
+        synchronized (updateLock) {
+            update.accept(intervalsByItem);
+
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(update);
+            }
+        }
+    }
+
+    private boolean isConsistent(long itemId, Set<BookingInterval> stored) {
+        Set<BookingInterval> indexed = getIntervals(intervalsByItem.get(itemId));
+
+        if (indexed.equals(stored)) {
+            return true;
+        }
+
+        NavigableMap<LocalDateTime, BookingInterval> reloaded = new ConcurrentSkipListMap<>();
+        bookingStorage.findIntervalsByItemIdAndStatus(itemId, Status.APPROVED)
+                .forEach(interval -> reloaded.put(interval.getStart(), interval));
+
+        // вещь перезаписывается, только если индекс не изменился с момента сравнения, иначе ее исправит
+        // следующая проверка
+        intervalsByItem.compute(itemId, (id, intervals) -> indexed.equals(getIntervals(intervals))
+                ? (reloaded.isEmpty() ? null : reloaded)
+                : intervals);
+        return false;
+    }
+
+    private static Set<BookingInterval> getIntervals(NavigableMap<LocalDateTime, BookingInterval> intervals) {
+        return intervals == null ? Set.of() : new HashSet<>(intervals.values());
+    }
+
+    private static void put(Map<Long, NavigableMap<LocalDateTime, BookingInterval>> index,
+                            BookingInterval interval) {
+        index.compute(interval.getItemId(), (id, intervals) -> {
+            NavigableMap<LocalDateTime, BookingInterval> result = intervals == null
+                    ? new ConcurrentSkipListMap<>()
+                    : intervals;
+            result.put(interval.getStart(), interval);
+            return result;
+        });
+    }
+
+    private static void remove(Map<Long, NavigableMap<LocalDateTime, BookingInterval>> index,
+                               BookingInterval interval) {
+        index.computeIfPresent(interval.getItemId(), (id, intervals) -> {
+            intervals.remove(interval.getStart(), interval);
+            return intervals.isEmpty() ? null : intervals;
+        });
+    }
+}
@@ -2,11 +2,15 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 import ru.practicum.shareit.utils.Constants;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -26,6 +30,13 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBookings(@RequestBody List<BookingCreationDto> bookingDtos,
+                                           @RequestHeader(HEADER_WITH_USER_ID_NAME) long userId) {
+        log.info("Попытка забронировать {} вещей пользователем с id = {}", bookingDtos.size(), userId);
+        return bookingService.createBookings(bookingDtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto setBookingStatus(@PathVariable long bookingId, @RequestParam boolean approved,
                                        @RequestHeader(HEADER_WITH_USER_ID_NAME) long userId) {
@@ -33,6 +44,13 @@ public class BookingController {
         return bookingService.setBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingStatusChangeResultDto> setBookingStatuses(@RequestBody List<BookingStatusChangeDto> changes,
+                                                                 @RequestHeader(HEADER_WITH_USER_ID_NAME) long userId) {
+        log.info("Попытка изменить статусы {} бронирований пользователем с id = {}", changes.size(), userId);
+        return bookingService.setBookingStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@PathVariable long bookingId,
                                  @RequestHeader(HEADER_WITH_USER_ID_NAME) long userId) {
@@ -44,20 +62,28 @@ public class BookingController {
     public List<BookingDto> getBookingsByBookerId(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
                                                   @RequestParam(defaultValue = DEFAULT_SEARCH_VALUE) String state,
                                                   @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
-                                                  @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+                                                  @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime afterStart,
+                                                  @RequestParam(required = false) Long afterId) {
 
         log.info("Попытка получить {} бронирований начиная с {} со статусом {} автора бронирований с id = {}", size,
                 from, state, userId);
-        return bookingService.getBookingsByBookerId(userId, state, from, size);
+        return bookingService.getBookingsByBookerId(userId, state, from, size, afterStart, afterId);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getBookingsByOwnerId(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
                                                  @RequestParam(defaultValue = DEFAULT_SEARCH_VALUE) String state,
                                                  @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
-                                                 @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+                                                 @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime afterStart,
+                                                 @RequestParam(required = false) Long afterId) {
         log.info("Попытка получить {} бронирований начиная с {} со статусом {} владельца вещей с id = {}", size, from,
                 state, userId);
-        return bookingService.getBookingsByOwnerId(userId, state, from, size);
+        return bookingService.getBookingsByOwnerId(userId, state, from, size, afterStart, afterId);
     }
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Отклоняет бронирования, которые так и не были подтверждены до даты начала.
+ * Владельцу дается запас времени после начала, чтобы подтверждение, отправленное в последний момент,
+ * не проиграло гонку с планировщиком. Каждая порция обрабатывается в отдельной транзакции, а между порциями делается пауза,
+ * чтобы не удерживать блокировки на таблице bookings долго.
+ */
+@Component
+@Slf4j
+public class BookingExpiryScheduler {
+    private final BookingService bookingService;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final Duration grace;
+
+    public BookingExpiryScheduler(BookingService bookingService,
+                                  @Value("${shareit.booking.expiry.batch-size}") int batchSize,
+                                  @Value("${shareit.booking.expiry.batch-pause}") Duration batchPause,
+                                  @Value("${shareit.booking.expiry.grace}") Duration grace) {
+        this.bookingService = bookingService;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.grace = grace;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.expiry.delay}",
+            fixedDelayString = "${shareit.booking.expiry.delay}")
+    public void rejectExpiredBookings() {
+        LocalDateTime startedBefore = LocalDateTime.now().minus(grace);
+        int rejected;
+
+        do {
+            rejected = bookingService.rejectExpiredBookings(startedBefore, batchSize);
+
+            if (rejected == batchSize && !pause()) {
+                return;
+            }
+        } while (rejected == batchSize);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            log.warn("Отклонение просроченных бронирований прервано");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
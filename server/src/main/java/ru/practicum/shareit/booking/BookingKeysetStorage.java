@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.SearchingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingKeysetStorage {
+    List<BookingDto> findByBookerIdAfter(long bookerId, SearchingState state, LocalDateTime now,
+                                            LocalDateTime afterStart, long afterId, int size);
+
+    List<BookingDto> findByOwnerIdAfter(long ownerId, SearchingState state, LocalDateTime now,
+                                        LocalDateTime afterStart, long afterId, int size);
+}
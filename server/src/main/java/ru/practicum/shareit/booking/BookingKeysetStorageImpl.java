@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.SearchingState;
+import ru.practicum.shareit.booking.model.Status;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Постраничная выборка бронирований по курсору (start, id): следующая страница начинается строго после
+ * последнего элемента предыдущей, поэтому стоимость запроса не зависит от глубины пролистывания.
+ */
+public class BookingKeysetStorageImpl implements BookingKeysetStorage {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findByBookerIdAfter(long bookerId, SearchingState state, LocalDateTime now,
+                                                LocalDateTime afterStart, long afterId, int size) {
+        boolean ascending = state == SearchingState.CURRENT;
+        return findAfter("u.id = :userId", bookerId, state, now, afterStart, afterId, size, ascending);
+    }
+
+    @Override
+    public List<BookingDto> findByOwnerIdAfter(long ownerId, SearchingState state, LocalDateTime now,
+                                               LocalDateTime afterStart, long afterId, int size) {
+        return findAfter("i.user.id = :userId", ownerId, state, now, afterStart, afterId, size, false);
+    }
+
+    private List<BookingDto> findAfter(String userCondition, long userId, SearchingState state, LocalDateTime now,
+                                       LocalDateTime afterStart, long afterId, int size, boolean ascending) {
+        String comparison = ascending ? ">" : "<";
+        String direction = ascending ? "asc" : "desc";
+
+        // нестрогое сравнение по start дает индексу границу диапазона, а условие в скобках отсекает
+        // уже выданные бронирования с тем же start
+        String jpql = BookingStorage.BOOKING_DTO_SELECT + "where " + userCondition + stateCondition(state) +
+                " and b.start " + comparison + "= :afterStart" +
+                " and (b.start " + comparison + " :afterStart or b.id " + comparison + " :afterId)" +
+                " order by b.start " + direction + ", b.id " + direction;
+
+        TypedQuery<BookingDto> query = entityManager.createQuery(jpql, BookingDto.class)
+                .setParameter("userId", userId)
+                .setParameter("afterStart", afterStart)
+                .setParameter("afterId", afterId)
+                .setMaxResults(size);
+
+        switch (state) {
+            case PAST:
+            case FUTURE:
+            case CURRENT:
+                query.setParameter("now", now);
+                break;
+            case WAITING:
+                query.setParameter("status", Status.WAITING);
+                break;
+            case REJECTED:
+                query.setParameter("status", Status.REJECTED);
+                break;
+            default:
+                break;
+        }
+
+        return query.getResultList();
+    }
+
+    private String stateCondition(SearchingState state) {
+        switch (state) {
+            case PAST:
+                return " and b.end < :now";
+            case FUTURE:
+                return " and b.start > :now";
+            case CURRENT:
+                return " and b.start < :now and b.end > :now";
+            case WAITING:
+            case REJECTED:
+                return " and b.status = :status";
+            default:
+                return "";
+        }
+    }
+}
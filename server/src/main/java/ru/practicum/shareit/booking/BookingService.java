@@ -2,18 +2,28 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
     BookingDto createBooking(BookingCreationDto bookingDto, long userId);
 
+    List<BookingDto> createBookings(List<BookingCreationDto> bookingDtos, long userId);
+
     BookingDto setBookingStatus(long userId, long bookingId, boolean approved);
 
+    List<BookingStatusChangeResultDto> setBookingStatuses(long userId, List<BookingStatusChangeDto> changes);
+
     BookingDto getBooking(long userId, long bookingId);
 
-    List<BookingDto> getBookingsByBookerId(long userId, String state, int from, int size);
+    List<BookingDto> getBookingsByBookerId(long userId, String state, int from, int size, LocalDateTime afterStart,
+                                           Long afterId);
 
-    List<BookingDto> getBookingsByOwnerId(long userId, String state, int from, int size);
+    List<BookingDto> getBookingsByOwnerId(long userId, String state, int from, int size, LocalDateTime afterStart,
+                                          Long afterId);
 
+    int rejectExpiredBookings(LocalDateTime startedBefore, int batchSize);
 }
@@ -2,17 +2,22 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.BookingStatusView;
 import ru.practicum.shareit.booking.dto.SearchingState;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
 import ru.practicum.shareit.booking.model.BookingMapper;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.AlreadyExistException;
@@ -23,11 +28,19 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.utils.Constants;
+import ru.practicum.shareit.utils.OffsetPageRequest;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utils.Constants.USER_CANNOT_CHANGE_BOOKING_STATUS_TWICE_MESSAGE;
 
@@ -40,9 +53,12 @@ public class BookingServiceImpl implements BookingService {
     private final BookingStorage bookingStorage;
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ItemBookingSummaryManager summaryManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    @Transactional
     public BookingDto createBooking(BookingCreationDto bookingDto, long userId) {
         checkTimeCorrectness(bookingDto.getStart(), bookingDto.getEnd());
 
@@ -52,62 +68,136 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException(String.format(Constants.USER_NOT_FOUND_MESSAGE, userId));
         }
 
-        Optional<Item> item = itemStorage.findById(bookingDto.getItemId());
-        if (item.isEmpty()) {
-            log.warn("Выполнена попытка забронировать вещь с несуществующим id = {} пользователем с id = {}",
-                    bookingDto.getItemId(), userId);
-            throw new NotFoundException(String.format(Constants.ITEM_NOT_FOUND_MESSAGE, bookingDto.getItemId()));
-        }
-
+        Item item = itemStorage.findById(bookingDto.getItemId()).orElse(null);
         log.info("Бронирование: {}", item);
+        checkItemAvailability(item, bookingDto.getItemId(), userId);
+        checkTimeCrossings(bookingDto.getStart(), bookingDto.getEnd(), item.getId());
 
-        if (!item.get().isAvailable()) {
-            log.warn("Выполнена попытка пользователем с id = {} забронировать вещь с id = {}, которая" +
-                    " недоступна к бронированию", userId, bookingDto.getItemId());
-            throw new NotAvailableException(String.format(Constants.ITEM_NOT_AVAILABLE_MESSAGE,
-                    bookingDto.getItemId()));
-        }
+        Booking createdBooking = bookingStorage.save(BookingMapper.toBooking(bookingDto, user.get(), item));
+        log.info("Создано бронирование с id = {} пользователем с id = {} на вещь с id = {}", createdBooking.getId(),
+                userId, bookingDto.getItemId());
+        return BookingMapper.toBookingDto(createdBooking);
+    }
 
-        if (item.get().getUser().getId().equals(userId)) {
-            log.warn("Выполнена попытка пользователем с id = {} забронировать свою вещь с id = {}",
-                    userId, item.get().getId());
-            throw new SecurityException(Constants.USER_CANNOT_BOOK_HIS_ITEM_MESSAGE);
+    @Override
+    @Transactional
+    public List<BookingDto> createBookings(List<BookingCreationDto> bookingDtos, long userId) {
+        if (bookingDtos.isEmpty()) {
+            log.warn("Выполнена попытка создать пустой список бронирований пользователем с id = {}", userId);
+            throw new IllegalArgumentException(Constants.EMPTY_BOOKINGS_BATCH_MESSAGE);
         }
 
-        checkTimeCrossings(bookingDto.getStart(), bookingDto.getEnd(), item.get().getId());
+        bookingDtos.forEach(bookingDto -> checkTimeCorrectness(bookingDto.getStart(), bookingDto.getEnd()));
 
-        Booking createdBooking = bookingStorage.save(BookingMapper.toBooking(bookingDto, user.get(), item.get()));
-        log.info("Создано бронирование с id = {} пользователем с id = {} на вещь с id = {}", createdBooking.getId(),
-                userId, bookingDto.getItemId());
-        return BookingMapper.toBookingDto(createdBooking);
+        Optional<User> user = userStorage.findById(userId);
+        if (user.isEmpty()) {
+            log.warn("Выполнена попытка забронировать вещи пользователем с несуществующим id = {}", userId);
+            throw new NotFoundException(String.format(Constants.USER_NOT_FOUND_MESSAGE, userId));
+        }
+
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingCreationDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemStorage.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        bookingDtos.forEach(bookingDto -> checkItemAvailability(items.get(bookingDto.getItemId()),
+                bookingDto.getItemId(), userId));
+        checkTimeCrossings(bookingDtos, itemIds);
+
+        List<Booking> createdBookings = bookingStorage.saveAll(bookingDtos.stream()
+                .map(bookingDto -> BookingMapper.toBooking(bookingDto, user.get(), items.get(bookingDto.getItemId())))
+                .collect(Collectors.toList()));
+        log.info("Создано {} бронирований пользователем с id = {} на вещи с id = {}", createdBookings.size(), userId,
+                itemIds);
+        return createdBookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    @Transactional
     public BookingDto setBookingStatus(long userId, long bookingId, boolean approved) {
-        Booking booking = getBookingById(bookingId);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        int updated;
 
-        if (!itemStorage.existsByUser_IdAndId(userId, booking.getItem().getId())) {
-            log.warn("Выполнена попытка изменить статус бронирования вещи с id = {} пользователем с id = {}, который " +
-                    "не является ее владельцем", booking.getItem().getId(), userId);
-            throw new SecurityException(Constants.NOT_OWNER_CANNOT_CHANGE_BOOKING_STATUS_MESSAGE);
+        try {
+            updated = bookingStorage.updateStatusByOwner(bookingId, userId, Status.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Выполнена попытка подтвердить бронирование с id = {}, пересекающееся по времени с уже" +
+                    " подтвержденным бронированием", bookingId);
+            throw new AlreadyExistException(String.format(Constants.APPROVED_BOOKINGS_CROSSING_MESSAGE, bookingId));
         }
 
-        if (!booking.getStatus().equals(Status.WAITING)) {
-            log.warn("Выполнена попытка повторно изменить статус бронирования вещи с id = {} пользователем с id = {}",
-                    bookingId, userId);
-            throw new IllegalArgumentException(USER_CANNOT_CHANGE_BOOKING_STATUS_TWICE_MESSAGE);
+        if (updated == 0) {
+            throw getStatusChangeFailure(userId, bookingId);
         }
 
+        log.info("Изменен статус бронирования с id = {} на {}", bookingId, status);
+        BookingDto booking = bookingStorage.findDtoById(bookingId).orElseThrow();
+
         if (approved) {
-            booking.setStatus(Status.APPROVED);
-            log.info("Изменен статус бронирования с id = {} на {}", bookingId, Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
-            log.info("Изменен статус бронирования с id = {} на {}", bookingId, Status.REJECTED);
+            summaryManager.onBookingsApproved(List.of(booking.getItem().getId()));
+        }
+
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(new BookingInterval(booking.getId(),
+                booking.getItem().getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd()), status));
+        return booking;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingStatusChangeResultDto> setBookingStatuses(long userId, List<BookingStatusChangeDto> changes) {
+        Set<Long> bookingIds = changes.stream()
+                .map(BookingStatusChangeDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, BookingStatusView> bookings = bookingStorage.findStatusViewsByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingStatusView::getId, Function.identity()));
+
+        Set<Long> processedIds = new HashSet<>();
+        Map<Long, List<BookingInterval>> approvedByItem = new HashMap<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        List<BookingStatusChangeResultDto> results = new ArrayList<>();
+
+        for (BookingStatusChangeDto change : changes) {
+            long bookingId = change.getBookingId();
+            Status status = change.getApproved() ? Status.APPROVED : Status.REJECTED;
+            BookingStatusView booking = bookings.get(bookingId);
+            String error = getStatusChangeError(userId, bookingId, booking, processedIds);
+
+            if (error == null && status == Status.APPROVED) {
+                BookingInterval interval = new BookingInterval(booking.getId(), booking.getItemId(),
+                        booking.getBookerId(), booking.getStart(), booking.getEnd());
+                // вещь попадает в список подтвержденных только вместе с принятым подтверждением
+                if (hasCrossing(interval, approvedByItem.getOrDefault(booking.getItemId(), List.of()))) {
+                    error = String.format(Constants.APPROVED_BOOKINGS_CROSSING_MESSAGE, bookingId);
+                } else {
+                    approvedByItem.computeIfAbsent(booking.getItemId(), id -> new ArrayList<>()).add(interval);
+                }
+            } else if (error == null) {
+                rejectedIds.add(bookingId);
+            }
+
+            processedIds.add(bookingId);
+            results.add(new BookingStatusChangeResultDto(bookingId, error == null ? status : null, error));
         }
 
-        return BookingMapper.toBookingDto(bookingStorage.save(booking));
+        List<BookingInterval> approved = approvedByItem.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        List<Long> approvedIds = approved.stream()
+                .map(BookingInterval::getId)
+                .collect(Collectors.toList());
+
+        updateStatuses(approvedIds, Status.APPROVED);
+        updateStatuses(rejectedIds, Status.REJECTED);
+        summaryManager.onBookingsApproved(approvedByItem.keySet());
+        approved.forEach(interval -> eventPublisher.publishEvent(new BookingStatusChangedEvent(interval,
+                Status.APPROVED)));
+
+        log.info("Пользователем с id = {} подтверждено {} и отклонено {} бронирований", userId, approvedIds.size(),
+                rejectedIds.size());
+        return results;
     }
 
     @Override
@@ -124,16 +214,26 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingsByBookerId(long userId, String state, int from, int size) {
-        Sort sortByStartDate = Sort.by(Sort.Direction.DESC, "start");
-        Pageable page = PageRequest.of(from / size, size, sortByStartDate);
-        Pageable pageableAsc = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "start"));
+    public List<BookingDto> getBookingsByBookerId(long userId, String state, int from, int size,
+                                                  LocalDateTime afterStart, Long afterId) {
+        Sort sortByStartDate = Sort.by(Sort.Direction.DESC, "start", "id");
+        Pageable page = OffsetPageRequest.of(from, size, sortByStartDate);
+        Pageable pageableAsc = OffsetPageRequest.of(from, size, Sort.by(Sort.Direction.ASC, "start", "id"));
 
-        Page<Booking> bookings = null;
+        Slice<BookingDto> bookings = null;
         SearchingState searchingState = getSearchingState(state);
+        checkCursor(afterStart, afterId);
 
         checkUserExistence(userId);
 
+        if (afterStart != null) {
+            List<BookingDto> res = bookingStorage.findByBookerIdAfter(userId, searchingState, LocalDateTime.now(),
+                    afterStart, afterId, size);
+            log.info("Получен список бронирований автора с id = {} со статусом {} после ({}, {}) длиной {}", userId,
+                    state, afterStart, afterId, res.size());
+            return res;
+        }
+
         switch (searchingState) {
             case ALL:
                 bookings = bookingStorage.findByBooker_Id(userId, page);
@@ -159,7 +259,7 @@ public class BookingServiceImpl implements BookingService {
         }
 
         List<BookingDto> res = (bookings != null)
-                ? BookingMapper.toBookingDto(bookings.getContent())
+                ? bookings.getContent()
                 : List.of();
 
         log.info("Получен список бронирований автора с id = {} со статусом {} длиной {}", userId, state,
@@ -168,14 +268,24 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingsByOwnerId(long userId, String state, int from, int size) {
-        Sort sortByStartDate = Sort.by(Sort.Direction.DESC, "start");
-        Pageable page = PageRequest.of(from / size, size, sortByStartDate);
-        Page<Booking> bookings;
+    public List<BookingDto> getBookingsByOwnerId(long userId, String state, int from, int size,
+                                                 LocalDateTime afterStart, Long afterId) {
+        Sort sortByStartDate = Sort.by(Sort.Direction.DESC, "start", "id");
+        Pageable page = OffsetPageRequest.of(from, size, sortByStartDate);
+        Slice<BookingDto> bookings;
         SearchingState searchingState = getSearchingState(state);
+        checkCursor(afterStart, afterId);
 
         checkUserExistence(userId);
 
+        if (afterStart != null) {
+            List<BookingDto> res = bookingStorage.findByOwnerIdAfter(userId, searchingState, LocalDateTime.now(),
+                    afterStart, afterId, size);
+            log.info("Получен список бронирований владельца вещей с id = {} со статусом {} после ({}, {}) длиной {}",
+                    userId, state, afterStart, afterId, res.size());
+            return res;
+        }
+
         switch (searchingState) {
             case ALL:
                 bookings = bookingStorage.findByItem_User_Id(userId, page);
@@ -201,7 +311,7 @@ public class BookingServiceImpl implements BookingService {
         }
 
         List<BookingDto> res = (bookings != null)
-                ? BookingMapper.toBookingDto(bookings.getContent())
+                ? bookings.getContent()
                 : List.of();
 
         log.info("Получен список бронирований владельца вещей с id = {} со статусом {} длиной {}", userId, state,
@@ -209,6 +319,68 @@ public class BookingServiceImpl implements BookingService {
         return res;
     }
 
+    private String getStatusChangeError(long userId, long bookingId, BookingStatusView booking,
+                                        Set<Long> processedIds) {
+        if (booking == null) {
+            return String.format(Constants.BOOKING_NOT_FOUND_MESSAGE, bookingId);
+        }
+
+        if (!booking.getOwnerId().equals(userId)) {
+            return Constants.NOT_OWNER_CANNOT_CHANGE_BOOKING_STATUS_MESSAGE;
+        }
+
+        if (processedIds.contains(bookingId) || !booking.getStatus().equals(Status.WAITING)) {
+            return USER_CANNOT_CHANGE_BOOKING_STATUS_TWICE_MESSAGE;
+        }
+
+        return null;
+    }
+
+    private boolean hasCrossing(BookingInterval interval, List<BookingInterval> approvedInBatch) {
+        boolean crossesBatch = approvedInBatch.stream()
+                .anyMatch(approved -> approved.getStart().isBefore(interval.getEnd())
+                        && approved.getEnd().isAfter(interval.getStart()));
+
+        return crossesBatch || (availabilityIndex.isReady()
+                ? availabilityIndex.hasCrossing(interval.getItemId(), interval.getStart(), interval.getEnd())
+                : bookingStorage.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(interval.getItemId(),
+                Status.APPROVED, interval.getEnd(), interval.getStart()));
+    }
+
+    private void updateStatuses(List<Long> bookingIds, Status status) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+
+        int updated;
+        try {
+            updated = bookingStorage.updateStatusByIdIn(bookingIds, Status.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Выполнена попытка подтвердить бронирования, пересекающиеся по времени с уже подтвержденными " +
+                    "бронированиями");
+            throw new AlreadyExistException(Constants.BOOKING_STATUSES_CHANGED_CONCURRENTLY_MESSAGE);
+        }
+
+        if (updated != bookingIds.size()) {
+            log.warn("Статусы бронирований {} были изменены одновременно с пакетным изменением", bookingIds);
+            throw new AlreadyExistException(Constants.BOOKING_STATUSES_CHANGED_CONCURRENTLY_MESSAGE);
+        }
+    }
+
+    private RuntimeException getStatusChangeFailure(long userId, long bookingId) {
+        Booking booking = getBookingById(bookingId);
+
+        if (!booking.getItem().getUser().getId().equals(userId)) {
+            log.warn("Выполнена попытка изменить статус бронирования вещи с id = {} пользователем с id = {}, который " +
+                    "не является ее владельцем", booking.getItem().getId(), userId);
+            return new SecurityException(Constants.NOT_OWNER_CANNOT_CHANGE_BOOKING_STATUS_MESSAGE);
+        }
+
+        log.warn("Выполнена попытка повторно изменить статус бронирования вещи с id = {} пользователем с id = {}",
+                bookingId, userId);
+        return new IllegalArgumentException(USER_CANNOT_CHANGE_BOOKING_STATUS_TWICE_MESSAGE);
+    }
+
     private Booking getBookingById(long bookingId) {
         Optional<Booking> booking = bookingStorage.findById(bookingId);
 
@@ -220,6 +392,21 @@ public class BookingServiceImpl implements BookingService {
         return booking.get();
     }
 
+    @Override
+    @Transactional
+    public int rejectExpiredBookings(LocalDateTime startedBefore, int batchSize) {
+        List<Long> expiredIds = bookingStorage.findIdsByStatusAndStartBefore(Status.WAITING, startedBefore,
+                PageRequest.of(0, batchSize));
+
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+
+        int rejected = bookingStorage.updateStatusByIdIn(expiredIds, Status.WAITING, Status.REJECTED);
+        log.info("Отклонено {} неподтвержденных бронирований с датой начала до {}", rejected, startedBefore);
+        return rejected;
+    }
+
     private void checkTimeCorrectness(LocalDateTime start, LocalDateTime end) {
         if (!start.isBefore(end)) {
             log.warn("Выполнена попытка создать бронирование с некорректными датами: start = {}, end = {}", start, end);
@@ -234,6 +421,14 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void checkCursor(LocalDateTime afterStart, Long afterId) {
+        if ((afterStart == null) != (afterId == null)) {
+            log.warn("Выполнена попытка получить бронирования по неполному курсору: afterStart = {}, afterId = {}",
+                    afterStart, afterId);
+            throw new IllegalArgumentException(Constants.INCOMPLETE_BOOKING_CURSOR_MESSAGE);
+        }
+    }
+
     private SearchingState getSearchingState(String state) {
         try {
             return SearchingState.valueOf(state);
@@ -243,18 +438,70 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void checkItemAvailability(Item item, long itemId, long userId) {
+        if (item == null) {
+            log.warn("Выполнена попытка забронировать вещь с несуществующим id = {} пользователем с id = {}",
+                    itemId, userId);
+            throw new NotFoundException(String.format(Constants.ITEM_NOT_FOUND_MESSAGE, itemId));
+        }
+
+        if (!item.isAvailable()) {
+            log.warn("Выполнена попытка пользователем с id = {} забронировать вещь с id = {}, которая" +
+                    " недоступна к бронированию", userId, itemId);
+            throw new NotAvailableException(String.format(Constants.ITEM_NOT_AVAILABLE_MESSAGE, itemId));
+        }
+
+        if (item.getUser().getId().equals(userId)) {
+            log.warn("Выполнена попытка пользователем с id = {} забронировать свою вещь с id = {}", userId, itemId);
+            throw new SecurityException(Constants.USER_CANNOT_BOOK_HIS_ITEM_MESSAGE);
+        }
+    }
+
     private void checkTimeCrossings(LocalDateTime bookingStart, LocalDateTime bookingEnd, long itemId) {
-        List<Booking> bookings = bookingStorage.findByItem_IdAndEndAfterAndStatusOrderByStartAsc(itemId,
-                LocalDateTime.now(), Status.APPROVED);
-
-        for (Booking booking : bookings) {
-            if ((bookingStart.isAfter(booking.getStart()) && bookingStart.isBefore(booking.getEnd()))
-                    || (bookingStart.isBefore(booking.getStart()) && bookingEnd.isAfter(booking.getStart()))) {
-                log.warn("Выполнена попытка создать бронирование вещи с id = {}, пересекающееся по времени с уже" +
-                        " подтвержденным бронированием с id = {}", itemId, booking.getId());
-                throw new AlreadyExistException(String.format(Constants.TIME_NOT_AVAILABLE_FOR_BOOKING_MESSAGE,
-                        bookingStart.format(FORMATTER), bookingEnd.format(FORMATTER)));
+        boolean hasCrossing = availabilityIndex.isReady()
+                ? availabilityIndex.hasCrossing(itemId, bookingStart, bookingEnd)
+                : bookingStorage.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(itemId, Status.APPROVED,
+                bookingEnd, bookingStart);
+
+        if (hasCrossing) {
+            throw getTimeCrossingException(bookingStart, bookingEnd, itemId);
+        }
+    }
+
+    private void checkTimeCrossings(List<BookingCreationDto> bookingDtos, Set<Long> itemIds) {
+        if (availabilityIndex.isReady()) {
+            bookingDtos.forEach(bookingDto -> checkTimeCrossings(bookingDto.getStart(), bookingDto.getEnd(),
+                    bookingDto.getItemId()));
+            return;
+        }
+
+        LocalDateTime from = bookingDtos.stream()
+                .map(BookingCreationDto::getStart)
+                .min(LocalDateTime::compareTo)
+                .orElseThrow();
+        LocalDateTime to = bookingDtos.stream()
+                .map(BookingCreationDto::getEnd)
+                .max(LocalDateTime::compareTo)
+                .orElseThrow();
+        Map<Long, List<BookingInterval>> approved = bookingStorage.findIntervalsInWindow(itemIds, Status.APPROVED, from,
+                to).stream().collect(Collectors.groupingBy(BookingInterval::getItemId));
+
+        for (BookingCreationDto bookingDto : bookingDtos) {
+            boolean hasCrossing = approved.getOrDefault(bookingDto.getItemId(), List.of()).stream()
+                    .anyMatch(interval -> interval.getStart().isBefore(bookingDto.getEnd())
+                            && interval.getEnd().isAfter(bookingDto.getStart()));
+
+            if (hasCrossing) {
+                throw getTimeCrossingException(bookingDto.getStart(), bookingDto.getEnd(), bookingDto.getItemId());
             }
         }
     }
+
+    private AlreadyExistException getTimeCrossingException(LocalDateTime bookingStart, LocalDateTime bookingEnd,
+                                                           long itemId) {
+        log.warn("Выполнена попытка создать бронирование вещи с id = {}, пересекающееся по времени с уже" +
+                " подтвержденным бронированием", itemId);
+        return new AlreadyExistException(String.format(Constants.TIME_NOT_AVAILABLE_FOR_BOOKING_MESSAGE,
+                bookingStart.format(FORMATTER), bookingEnd.format(FORMATTER)));
+    }
 }
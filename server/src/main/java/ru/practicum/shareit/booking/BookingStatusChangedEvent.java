@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.Status;
+
+/**
+ * Публикуется при подтверждении или отклонении бронирования.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingStatusChangedEvent {
+    private final BookingInterval interval;
+    private final Status status;
+}
@@ -1,46 +1,146 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
 import ru.practicum.shareit.booking.model.Status;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingStorage extends JpaRepository<Booking, Long> {
-    Page<Booking> findByBooker_Id(Long bookerId, Pageable pageable);
-
-    Page<Booking> findByBooker_IdAndEndBefore(Long bookerId, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByBooker_IdAndStartAfter(Long bookerId, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByBooker_IdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime time1, LocalDateTime time2,
-                                                           Pageable pageable);
-
-    Page<Booking> findByBooker_IdAndStatus(Long bookerId, Status status, Pageable pageable);
-
-    Page<Booking> findByItem_User_Id(Long ownerId, Pageable pageable);
-
-    Page<Booking> findByItem_User_IdAndStatus(Long ownerId, Status status, Pageable pageable);
-
-    Page<Booking> findByItem_User_IdAndStartAfter(Long ownerId, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByItem_User_IdAndEndBefore(Long ownerId, LocalDateTime time, Pageable pageable);
-
-    Page<Booking> findByItem_User_IdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime time1,
-                                                              LocalDateTime time2, Pageable pageable);
-
-    List<Booking> findByItem_IdAndItem_User_IdAndStatusOrderByStartAsc(Long itemId, Long ownerId, Status status);
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface BookingStorage extends JpaRepository<Booking, Long>, BookingKeysetStorage {
+    String STREAM_FETCH_SIZE = "500";
+    String BOOKING_DTO_SELECT = "select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, " +
+            "b.status, u.id, u.name, u.email, i.id, i.name, i.description, i.available, i.itemRequest.id) " +
+            "from Booking b join b.booker u join b.item i ";
+
+    @Query(BOOKING_DTO_SELECT + "where u.id = :bookerId")
+    Slice<BookingDto> findByBooker_Id(@Param("bookerId") Long bookerId, Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where u.id = :bookerId and b.end < :time")
+    Slice<BookingDto> findByBooker_IdAndEndBefore(@Param("bookerId") Long bookerId, @Param("time") LocalDateTime time,
+                                                  Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where u.id = :bookerId and b.start > :time")
+    Slice<BookingDto> findByBooker_IdAndStartAfter(@Param("bookerId") Long bookerId, @Param("time") LocalDateTime time,
+                                                   Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where u.id = :bookerId and b.start < :time1 and b.end > :time2")
+    Slice<BookingDto> findByBooker_IdAndStartBeforeAndEndAfter(@Param("bookerId") Long bookerId,
+                                                               @Param("time1") LocalDateTime time1,
+                                                               @Param("time2") LocalDateTime time2,
+                                                               Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where u.id = :bookerId and b.status = :status")
+    Slice<BookingDto> findByBooker_IdAndStatus(@Param("bookerId") Long bookerId, @Param("status") Status status,
+                                               Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where i.user.id = :ownerId")
+    Slice<BookingDto> findByItem_User_Id(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where i.user.id = :ownerId and b.status = :status")
+    Slice<BookingDto> findByItem_User_IdAndStatus(@Param("ownerId") Long ownerId, @Param("status") Status status,
+                                                  Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where i.user.id = :ownerId and b.start > :time")
+    Slice<BookingDto> findByItem_User_IdAndStartAfter(@Param("ownerId") Long ownerId,
+                                                      @Param("time") LocalDateTime time, Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where i.user.id = :ownerId and b.end < :time")
+    Slice<BookingDto> findByItem_User_IdAndEndBefore(@Param("ownerId") Long ownerId,
+                                                     @Param("time") LocalDateTime time, Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where i.user.id = :ownerId and b.start < :time1 and b.end > :time2")
+    Slice<BookingDto> findByItem_User_IdAndStartBeforeAndEndAfter(@Param("ownerId") Long ownerId,
+                                                                  @Param("time1") LocalDateTime time1,
+                                                                  @Param("time2") LocalDateTime time2,
+                                                                  Pageable pageable);
+
+    @Query(BOOKING_DTO_SELECT + "where b.id = :bookingId")
+    Optional<BookingDto> findDtoById(@Param("bookingId") Long bookingId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :newStatus where b.id = :bookingId and b.status = :expectedStatus " +
+            "and b.item.id in (select i.id from Item i where i.user.id = :ownerId)")
+    int updateStatusByOwner(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId,
+                            @Param("expectedStatus") Status expectedStatus, @Param("newStatus") Status newStatus);
+
+    @Query("select b.id as id, b.status as status, i.id as itemId, i.user.id as ownerId, b.booker.id as bookerId, " +
+            "b.start as start, b.end as end from Booking b join b.item i where b.id in :bookingIds")
+    List<BookingStatusView> findStatusViewsByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("select b.id from Booking b where b.status = :status and b.start < :time order by b.start, b.id")
+    List<Long> findIdsByStatusAndStartBefore(@Param("status") Status status, @Param("time") LocalDateTime time,
+                                             Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :newStatus where b.id in :bookingIds and b.status = :expectedStatus")
+    int updateStatusByIdIn(@Param("bookingIds") Collection<Long> bookingIds,
+                           @Param("expectedStatus") Status expectedStatus, @Param("newStatus") Status newStatus);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.item.id in :itemIds and b.status = :status and (" +
+            "b.start = (select max(l.start) from Booking l where l.item.id = b.item.id and l.status = :status " +
+            "and l.start <= :time) or " +
+            "b.start = (select min(n.start) from Booking n where n.item.id = b.item.id and n.status = :status " +
+            "and n.start > :time))")
+    List<BookingInterval> findLastAndNextIntervals(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("status") Status status,
+                                                   @Param("time") LocalDateTime time);
 
     boolean existsByItem_IdAndBooker_IdAndStatusAndEndBefore(Long itemId, Long userId, Status status, LocalDateTime end);
 
-    List<Booking> findByItem_IdAndEndAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime end, Status status);
-
-    List<Booking> findByItemIdInAndStartBeforeAndStatus(List<Long> itemIds, LocalDateTime now, Status status, Sort sort);
-
-    List<Booking> findByItemIdInAndStartAfterAndStatus(List<Long> itemIds, LocalDateTime now, Status status, Sort sort);
-
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfter(Long itemId, Status status, LocalDateTime end,
+                                                              LocalDateTime start);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.status = :status order by b.item.id, b.start")
+    Stream<BookingInterval> streamIntervalsByStatus(@Param("status") Status status);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.item.id = :itemId and b.status = :status")
+    List<BookingInterval> findIntervalsByItemIdAndStatus(@Param("itemId") Long itemId, @Param("status") Status status);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.item.id in :itemIds and b.status = :status and b.start < :to and b.end > :from")
+    List<BookingInterval> findIntervalsInWindow(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("status") Status status,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.start < :to and b.end > :from " +
+            "order by b.start, b.id")
+    List<BookingInterval> findIntervalsInItemWindow(@Param("itemId") Long itemId,
+                                                    @Param("statuses") Collection<Status> statuses,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.start < :to and b.end > :from " +
+            "and b.start >= :afterStart and (b.start > :afterStart or b.id > :afterId) " +
+            "order by b.start, b.id")
+    List<BookingInterval> findIntervalsInItemWindowAfter(@Param("itemId") Long itemId,
+                                                         @Param("statuses") Collection<Status> statuses,
+                                                         @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to,
+                                                         @Param("afterStart") LocalDateTime afterStart,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
 }
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.ItemStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает таблицу item_booking_summary с последним и следующим подтвержденными бронированиями вещи.
+ * Сводка пересчитывается под блокировкой вещи при подтверждении бронирований и планировщиком, когда следующее
+ * бронирование начинается. Чтение сводку не изменяет: если она устарела раньше, чем ее обновил планировщик,
+ * последнее и следующее бронирования читаются из таблицы бронирований.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryManager {
+    private final ItemBookingSummaryStorage summaryStorage;
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+
+    public void onBookingsApproved(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+
+        refresh(itemIds);
+        log.info("Обновлена сводка бронирований вещей с id = {}", itemIds);
+    }
+
+    @Transactional
+    public int refreshStarted(int batchSize) {
+        List<Long> itemIds = summaryStorage.findItemIdsByNextStartBefore(LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+
+        if (!itemIds.isEmpty()) {
+            refresh(itemIds);
+            log.info("Обновлена сводка бронирований вещей с начавшимся следующим бронированием, количество: {}",
+                    itemIds.size());
+        }
+
+        return itemIds.size();
+    }
+
+    private void refresh(Collection<Long> itemIds) {
+        // блокировка вещей упорядочивает пересчеты сводки параллельными подтверждениями
+        itemStorage.findLockedByIdInOrderByIdAsc(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryStorage.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        Map<Long, BookingInterval[]> bookings = findLastAndNextBookings(itemIds, now);
+        List<ItemBookingSummary> refreshed = new ArrayList<>();
+
+        for (Long itemId : itemIds) {
+            BookingInterval[] itemBookings = bookings.get(itemId);
+            ItemBookingSummary summary = summaries.getOrDefault(itemId, new ItemBookingSummary(itemId));
+            summary.setLastBooking(toReference(itemBookings[0]));
+            summary.setNextBooking(toReference(itemBookings[1]));
+            summary.setNextStart(itemBookings[1] == null ? null : itemBookings[1].getStart());
+            refreshed.add(summary);
+        }
+
+        summaryStorage.saveAll(refreshed);
+    }
+
+    public Map<Long, BookingInterval[]> getLastAndNextBookings(Collection<Long> itemIds, LocalDateTime now) {
+        List<ItemBookingSummaryView> summaries = summaryStorage.findViewsByItemIdIn(itemIds);
+        Map<Long, BookingInterval[]> bookings = new HashMap<>();
+        List<Long> staleItemIds = new ArrayList<>();
+
+        for (ItemBookingSummaryView summary : summaries) {
+            BookingInterval lastBooking = toInterval(summary.getItemId(), summary.getLastId(),
+                    summary.getLastBookerId(), summary.getLastStart(), summary.getLastEnd());
+            BookingInterval nextBooking = toInterval(summary.getItemId(), summary.getNextId(),
+                    summary.getNextBookerId(), summary.getNextStart(), summary.getNextEnd());
+
+            if (nextBooking != null && !nextBooking.getStart().isAfter(now)) {
+                // следующее бронирование уже началось, а планировщик еще не обновил сводку
+                staleItemIds.add(summary.getItemId());
+            } else {
+                bookings.put(summary.getItemId(), new BookingInterval[]{lastBooking, nextBooking});
+            }
+        }
+
+        if (!staleItemIds.isEmpty()) {
+            bookings.putAll(findLastAndNextBookings(staleItemIds, now));
+        }
+
+        return bookings;
+    }
+
+    public BookingInterval[] findLastAndNextBookings(Long itemId, LocalDateTime time) {
+        return findLastAndNextBookings(List.of(itemId), time).get(itemId);
+    }
+
+    /**
+     * Последнее и следующее подтвержденные бронирования каждой из вещей одним запросом; у вещи без них
+     * в массиве null.
+     */
+    private Map<Long, BookingInterval[]> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime time) {
+        Map<Long, BookingInterval[]> bookings = new HashMap<>();
+
+        for (Long itemId : itemIds) {
+            bookings.put(itemId, new BookingInterval[2]);
+        }
+
+        for (BookingInterval booking : bookingStorage.findLastAndNextIntervals(itemIds, Status.APPROVED, time)) {
+            bookings.get(booking.getItemId())[booking.getStart().isAfter(time) ? 1 : 0] = booking;
+        }
+
+        return bookings;
+    }
+
+    private BookingInterval toInterval(Long itemId, Long id, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        return id == null ? null : new BookingInterval(id, itemId, bookerId, start, end);
+    }
+
+    private Booking toReference(BookingInterval booking) {
+        return booking == null ? null : bookingStorage.getReferenceById(booking.getId());
+    }
+}
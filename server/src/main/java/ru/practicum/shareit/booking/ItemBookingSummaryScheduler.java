@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обновляет сводки бронирований вещей, следующее бронирование которых уже началось, чтобы чтение списков вещей
+ * владельца не пересчитывало их. Каждая порция обновляется в отдельной транзакции.
+ */
+@Component
+public class ItemBookingSummaryScheduler {
+    private final ItemBookingSummaryManager summaryManager;
+    private final int batchSize;
+
+    public ItemBookingSummaryScheduler(ItemBookingSummaryManager summaryManager,
+                                       @Value("${shareit.booking.summary.batch-size}") int batchSize) {
+        this.summaryManager = summaryManager;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.summary.refresh-delay}",
+            fixedDelayString = "${shareit.booking.summary.refresh-delay}")
+    public void refreshStartedSummaries() {
+        int refreshed;
+
+        do {
+            refreshed = summaryManager.refreshStarted(batchSize);
+        } while (refreshed == batchSize);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryStorage extends JpaRepository<ItemBookingSummary, Long> {
+    @Query("select s.itemId as itemId, l.id as lastId, l.booker.id as lastBookerId, " +
+            "l.start as lastStart, l.end as lastEnd, n.id as nextId, n.booker.id as nextBookerId, " +
+            "n.start as nextStart, n.end as nextEnd " +
+            "from ItemBookingSummary s left join s.lastBooking l left join s.nextBooking n " +
+            "where s.itemId in :itemIds")
+    List<ItemBookingSummaryView> findViewsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary s where s.nextStart <= :now order by s.itemId")
+    List<Long> findItemIdsByNextStartBefore(@Param("now") LocalDateTime now, Pageable page);
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemBookingSummaryView {
+    Long getItemId();
+
+    Long getLastId();
+
+    Long getLastBookerId();
+
+    LocalDateTime getLastStart();
+
+    LocalDateTime getLastEnd();
+
+    Long getNextId();
+
+    Long getNextBookerId();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
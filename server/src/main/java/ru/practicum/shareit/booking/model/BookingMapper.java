@@ -9,9 +9,6 @@ import ru.practicum.shareit.item.model.ItemMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserMapper;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @UtilityClass
 public class BookingMapper {
 
@@ -26,12 +23,6 @@ public class BookingMapper {
         );
     }
 
-    public static List<BookingDto> toBookingDto(List<Booking> bookings) {
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
-    }
-
     public static Booking toBooking(BookingCreationDto bookingDto, User user, Item item) {
         return new Booking(
                 Status.WAITING,
@@ -55,4 +46,18 @@ public class BookingMapper {
                 booking.getBooker().getId()
         );
     }
+
+    public static SimpleBookingDto toSimpleBookingDto(BookingInterval interval) {
+        if (interval == null) {
+            return null;
+        }
+
+        return new SimpleBookingDto(
+                interval.getId(),
+                interval.getStart(),
+                interval.getEnd(),
+                Status.APPROVED,
+                interval.getBookerId()
+        );
+    }
 }
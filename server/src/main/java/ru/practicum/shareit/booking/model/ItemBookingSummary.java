@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary implements Persistable<Long> {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    @ToString.Exclude
+    private Booking lastBooking;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    @ToString.Exclude
+    private Booking nextBooking;
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+    // пересчеты сводки упорядочены блокировкой вещи, версия защищает от записи в обход нее
+    @Version
+    private long version;
+    // id назначается вручную, поэтому без флага save выполнял бы merge с лишним select перед вставкой
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private boolean newSummary;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+        this.newSummary = true;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newSummary;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newSummary = false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemBookingSummary summary = (ItemBookingSummary) o;
+        return getItemId() != null && Objects.equals(getItemId(), summary.getItemId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
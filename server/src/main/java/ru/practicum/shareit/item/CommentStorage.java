@@ -1,15 +1,27 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentStorage extends JpaRepository<Comment, Long> {
     boolean existsByItem_IdAndAuthor_Id(Long itemId, Long userId);
 
-    List<Comment> findByItem_IdOrderByIdAsc(Long id);
+    @Query(value = "select c.item_id as \"itemId\", c.id as \"id\", c.text as \"text\", " +
+            "u.name as \"authorName\", c.created as \"created\" " +
+            "from items i cross join lateral (select lc.* from comments lc where lc.item_id = i.id " +
+            "order by lc.id desc limit :limit) c join users u on u.id = c.user_id " +
+            "where i.id in :itemIds order by c.item_id, c.id", nativeQuery = true)
+    List<CommentView> findLatestViewsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
 
-    List<Comment> findByItem_IdInOrderByIdAsc(List<Long> ids);
+    @Query("select c.item.id as itemId, c.id as id, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a where c.item.id = :itemId order by c.id desc")
+    List<CommentView> findViewsByItemId(@Param("itemId") Long itemId, Pageable pageable);
 
 }
\ No newline at end of file
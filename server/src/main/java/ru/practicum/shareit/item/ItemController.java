@@ -1,13 +1,23 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.utils.Constants;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -17,6 +27,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
     private static final String HEADER_WITH_USER_ID_NAME = "X-Sharer-User-Id";
 
     @PostMapping
@@ -54,11 +65,55 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam String text,
                                      @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
-                                     @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+                                     @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size,
+                                     @RequestParam(defaultValue = "false") boolean fuzzy,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
 
         log.info("Попытка найти вещи по поисковой строке: {}", text);
 
-        return itemService.searchItems(text, from, size);
+        return itemService.searchItems(text, from, size, fuzzy, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String text,
+                                         @RequestParam(defaultValue = Constants.DEFAULT_SUGGESTIONS_SIZE) int size) {
+        log.info("Попытка получить подсказки названий вещей по префиксу: {}", text);
+        return itemService.suggestItemNames(text, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public void getAvailability(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
+                                @PathVariable long itemId,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                @RequestParam(defaultValue = "false") boolean includeWaiting,
+                                HttpServletResponse response) throws IOException {
+        log.info("Попытка получить свободное время вещи с id = {} с {} по {}", itemId, from, to);
+        // проверки выполняются до записи ответа, поэтому ошибка возвращается обычным ответом об ошибке
+        Iterator<FreeIntervalDto> intervals = itemService.getAvailability(userId, itemId, from, to, includeWaiting);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+
+            while (intervals.hasNext()) {
+                generator.writeObject(intervals.next());
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
+                                        @PathVariable long itemId,
+                                        @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
+                                        @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Попытка получить {} отзывов на вещь с id = {} начиная с {} отзыва", size, itemId, from);
+        return itemService.getComments(itemId, userId, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * Публикуется при создании или изменении вещи. Индексы, кэш поиска и поток запросов обновляются после фиксации
+ * транзакции, а совпадения с запросами сохраняются в той же транзакции, что и вещь.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemSavedEvent {
+    private final ItemDto item;
+    private final long ownerId;
+    private final boolean created;
+    private final String previousName;
+    private final String previousDescription;
+
+    public static ItemSavedEvent created(ItemDto item, long ownerId) {
+        return new ItemSavedEvent(snapshot(item), ownerId, true, null, null);
+    }
+
+    public static ItemSavedEvent updated(ItemDto item, long ownerId, String previousName, String previousDescription) {
+        return new ItemSavedEvent(snapshot(item), ownerId, false, previousName, previousDescription);
+    }
+
+    private static ItemDto snapshot(ItemDto item) {
+        return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequestId());
+    }
+}
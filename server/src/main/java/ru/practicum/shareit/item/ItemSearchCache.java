@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска вещей, ограниченный суммарным числом вещей во всех закэшированных страницах.
+ * При создании или изменении вещи удаляются только те страницы, запрос которых совпадает со старыми
+ * или новыми названием и описанием вещи.
+ */
+@Component
+public class ItemSearchCache {
+    private static final String CACHE_NAME = "itemSearch";
+    private final int maxItems;
+    private final Map<SearchKey, List<ItemDto>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private int cachedItems;
+    private long generation;
+
+    public ItemSearchCache(@Value("${shareit.item.search.cache.max-items}") int maxItems, MeterRegistry registry) {
+        this.maxItems = maxItems;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(registry);
+        Gauge.builder("cache.size", this, ItemSearchCache::size).tag("cache", CACHE_NAME).register(registry);
+        Gauge.builder("cache.hit.ratio", this, ItemSearchCache::getHitRatio).tag("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    public List<ItemDto> get(String text, int from, int size, boolean fuzzy, Supplier<List<ItemDto>> loader) {
+        SearchKey key = new SearchKey(text.toLowerCase(Locale.ROOT), from, size, fuzzy);
+        long loadGeneration;
+
+        synchronized (this) {
+            List<ItemDto> cached = pages.get(key);
+
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        List<ItemDto> result = List.copyOf(loader.get());
+
+        synchronized (this) {
+            // страница могла устареть, пока загружалась
+            if (loadGeneration == generation && result.size() <= maxItems) {
+                put(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    // после ItemSearchIndex, чтобы страницы, загруженные после сброса, читали уже обновленный индекс
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        invalidate(event.getPreviousName(), event.getPreviousDescription(), event.getItem().getName(),
+                event.getItem().getDescription());
+    }
+
+    private synchronized void invalidate(String... texts) {
+        generation++;
+        Iterator<Map.Entry<SearchKey, List<ItemDto>>> iterator = pages.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<SearchKey, List<ItemDto>> entry = iterator.next();
+
+            if (entry.getKey().matchesAny(texts)) {
+                cachedItems -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void put(SearchKey key, List<ItemDto> result) {
+        List<ItemDto> previous = pages.put(key, result);
+        cachedItems += result.size() - (previous == null ? 0 : previous.size());
+        Iterator<List<ItemDto>> eldest = pages.values().iterator();
+
+        while (cachedItems > maxItems && eldest.hasNext()) {
+            cachedItems -= eldest.next().size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized int size() {
+        return pages.size();
+    }
+
+    private double getHitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class SearchKey {
+        private final String text;
+        private final int from;
+        private final int size;
+        private final boolean fuzzy;
+
+        boolean matchesAny(String... texts) {
+            for (String changed : texts) {
+                if (changed != null && ItemSearchIndex.matches(text, changed.toLowerCase(Locale.ROOT), fuzzy)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
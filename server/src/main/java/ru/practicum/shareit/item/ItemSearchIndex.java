@@ -0,0 +1,586 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс триграмм названий и описаний вещей.
+ * Списки вещей для каждой триграммы хранятся отсортированными массивами int, доступность вещей - битовой картой.
+ * Кандидаты, найденные пересечением списков, проверяются поиском подстроки, поэтому результат совпадает
+ * с поиском через ILIKE. Точный поиск отдает вещи по возрастанию id, без ранжирования по сходству, как в режиме
+ * TRIGRAM: страница заполняется при обходе отсортированных списков без оценки всех совпадений.
+ * Нечеткий поиск отбирает кандидатов по числу общих с запросом триграмм (каждая правка разрушает не больше
+ * трех триграмм) и проверяет их расстоянием Левенштейна до ближайшей подстроки. Короткому запросу одна-две
+ * правки могут разрушить все триграммы, поэтому для него кандидаты отбираются по биграммам. Число общих граммов
+ * дает нижнюю оценку расстояния, и кандидаты проверяются по ее возрастанию: проверка останавливается, как только
+ * страница заполнена вещами, которые оставшиеся кандидаты уже не могут вытеснить, или когда просмотрено либо
+ * отброшено слишком много кандидатов: тогда страница может быть неполной, зато запрос без совпадений не обходит
+ * весь каталог.
+ * Для подсказок названия доступных вещей хранятся в отсортированном словаре по суффиксам, начинающимся
+ * с каждого слова названия, так что все продолжения префикса лежат в нем подряд.
+ * Индекс локален для экземпляра сервера: источником истины остается таблица items.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int BIGRAM_LENGTH = 2;
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final int MAX_MERGED_CANDIDATES = 25_000;
+    private static final int MAX_REJECTED_CANDIDATES = 1_000;
+    private static final Comparator<int[]> BY_DISTANCE_AND_ID = Comparator.<int[]>comparingInt(found -> found[0])
+            .thenComparingInt(found -> found[1]);
+    private final ItemStorage itemStorage;
+    private final Map<Long, PostingList> postingsByGram = new HashMap<>();
+    private final Map<Long, PostingList> postingsByBigram = new HashMap<>();
+    private final Map<Integer, IndexedItem> itemsById = new HashMap<>();
+    private final BitSet availableItems = new BitSet();
+    private final NavigableMap<String, String> namesByWordSuffix = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postingsByGram.clear();
+            postingsByBigram.clear();
+            itemsById.clear();
+            availableItems.clear();
+            namesByWordSuffix.clear();
+
+            try (Stream<ItemDto> items = itemStorage.streamAllDtos()) {
+                items.forEach(this::put);
+            }
+
+            postingsByGram.values().forEach(PostingList::trim);
+            postingsByBigram.values().forEach(PostingList::trim);
+            ready = true;
+            log.info("Построен поисковый индекс для {} вещей по {} триграммам", itemsById.size(),
+                    postingsByGram.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size, LongPredicate filter) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<ItemDto> result = new ArrayList<>();
+        int skip = from;
+
+        lock.readLock().lock();
+        try {
+            // кандидаты перебираются лениво: частый запрос заполняет страницу по началу списка триграммы
+            PrimitiveIterator.OfInt candidates = findCandidates(query).iterator();
+
+            while (candidates.hasNext()) {
+                int id = candidates.nextInt();
+                IndexedItem item = itemsById.get(id);
+
+                if (!item.matches(query) || !filter.test(id)) {
+                    continue;
+                }
+
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+
+                result.add(item.toItemDto());
+
+                if (result.size() == size) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    public List<ItemDto> searchFuzzy(String text, int from, int size, LongPredicate filter) {
+        String query = text.toLowerCase(Locale.ROOT);
+        int maxDistance = getMaxDistance(query.length());
+
+        // без допустимых правок нечеткий поиск совпадает с точным, порядок по id тоже
+        if (maxDistance == 0) {
+            return search(text, from, size, filter);
+        }
+
+        Set<Long> queryGrams = grams(query);
+        Set<Long> queryBigrams = bigrams(query);
+        FuzzyPage page = new FuzzyPage(query, maxDistance, from + size, filter);
+
+        lock.readLock().lock();
+        try {
+            if (queryGrams.size() > GRAM_LENGTH * maxDistance) {
+                findFuzzy(postingsByGram, queryGrams, GRAM_LENGTH, page);
+            } else if (queryBigrams.size() > BIGRAM_LENGTH * maxDistance) {
+                findFuzzy(postingsByBigram, queryBigrams, BIGRAM_LENGTH, page);
+            } else {
+                // нижняя оценка для всех вещей нулевая, поэтому вещи проверяются по возрастанию id
+                int id = availableItems.nextSetBit(0);
+                while (id >= 0 && page.offer(0, id)) {
+                    id = availableItems.nextSetBit(id + 1);
+                }
+            }
+
+            return page.toItemDtos(from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Set<String> names = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, String> entry : namesByWordSuffix.tailMap(key).entrySet()) {
+                if (names.size() == size || !entry.getKey().startsWith(key)) {
+                    break;
+                }
+
+                names.add(entry.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new ArrayList<>(names);
+    }
+
+    // раньше ItemSearchCache: иначе поиск между сбросом кэша и обновлением индекса закэшировал бы старую страницу
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            put(event.getItem());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private IntStream findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return availableItems.stream();
+        }
+
+        List<PostingList> postings = new ArrayList<>();
+        for (long gram : grams(query)) {
+            PostingList posting = postingsByGram.get(gram);
+
+            if (posting == null) {
+                return IntStream.empty();
+            }
+
+            postings.add(posting);
+        }
+
+        postings.sort(Comparator.comparingInt(PostingList::size));
+        PostingList shortest = postings.get(0);
+        List<PostingList> others = postings.subList(1, postings.size());
+        return Arrays.stream(shortest.ids, 0, shortest.size)
+                .filter(availableItems::get)
+                .filter(id -> others.stream().allMatch(posting -> posting.contains(id)));
+    }
+
+    static boolean matches(String query, String text, boolean fuzzy) {
+        return fuzzy
+                ? getSubstringDistance(query, text) <= getMaxDistance(query.length())
+                : text.contains(query);
+    }
+
+    /**
+     * Перебирает кандидатов по возрастанию пары (нижняя оценка расстояния, id). Одна правка разрушает не больше
+     * gramLength граммов запроса, поэтому у вещи на расстоянии d общих с запросом граммов не меньше, чем их у запроса
+     * минус gramLength * d, и такая вещь есть хотя бы в одном из gramLength * d + 1 самых коротких списков граммов
+     * запроса. Для каждой оценки эти списки сливаются по возрастанию id, а в остальных вещь ищется с последней
+     * найденной позиции, так что перебор останавливается, как только страница заполнена, не собирая всех кандидатов.
+     */
+    private void findFuzzy(Map<Long, PostingList> postings, Set<Long> queryGrams, int gramLength, FuzzyPage page) {
+        List<PostingList> queryPostings = queryGrams.stream()
+                .map(postings::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(PostingList::size))
+                .collect(Collectors.toList());
+        // граммы, которых нет ни у одной вещи, отсутствуют и у кандидатов
+        int absentGrams = queryGrams.size() - queryPostings.size();
+
+        for (int bound = 0; bound <= page.maxDistance; bound++) {
+            int probes = Math.min(gramLength * bound + 1 - absentGrams, queryPostings.size());
+
+            if (probes <= 0) {
+                continue;
+            }
+
+            List<PostingList> merged = queryPostings.subList(0, probes);
+            List<PostingList> checked = queryPostings.subList(probes, queryPostings.size());
+            int[] positions = new int[probes];
+            int[] checkedPositions = new int[checked.size()];
+
+            while (true) {
+                int id = Integer.MAX_VALUE;
+                for (int i = 0; i < probes; i++) {
+                    PostingList posting = merged.get(i);
+
+                    if (positions[i] < posting.size) {
+                        id = Math.min(id, posting.ids[positions[i]]);
+                    }
+                }
+
+                if (id == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                if (!page.merge()) {
+                    return;
+                }
+
+                int shared = 0;
+                for (int i = 0; i < probes; i++) {
+                    PostingList posting = merged.get(i);
+
+                    if (positions[i] < posting.size && posting.ids[positions[i]] == id) {
+                        positions[i]++;
+                        shared++;
+                    }
+                }
+
+                if (!availableItems.get(id)) {
+                    continue;
+                }
+
+                for (int i = 0; i < checked.size(); i++) {
+                    PostingList posting = checked.get(i);
+                    checkedPositions[i] = posting.seek(checkedPositions[i], id);
+
+                    if (checkedPositions[i] < posting.size && posting.ids[checkedPositions[i]] == id) {
+                        shared++;
+                    }
+                }
+
+                // вещи с меньшей оценкой проверены на предыдущих шагах, с большей - будут проверены на следующих
+                if ((queryGrams.size() - shared + gramLength - 1) / gramLength == bound && !page.offer(bound, id)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int getMaxDistance(int queryLength) {
+        if (queryLength <= 3) {
+            return 0;
+        }
+
+        return queryLength <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Наименьшее расстояние Левенштейна между запросом и любой подстрокой текста (алгоритм Селлерса).
+     */
+    private static int getSubstringDistance(String query, String text) {
+        int[] previous = new int[query.length() + 1];
+        int[] current = new int[query.length() + 1];
+
+        for (int i = 0; i <= query.length(); i++) {
+            previous[i] = i;
+        }
+
+        int best = previous[query.length()];
+        for (int j = 0; j < text.length(); j++) {
+            current[0] = 0;
+
+            for (int i = 1; i <= query.length(); i++) {
+                int cost = query.charAt(i - 1) == text.charAt(j) ? 0 : 1;
+                current[i] = Math.min(previous[i - 1] + cost, Math.min(previous[i], current[i - 1]) + 1);
+            }
+
+            best = Math.min(best, current[query.length()]);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return best;
+    }
+
+    private void put(ItemDto item) {
+        int id = Math.toIntExact(item.getId());
+        IndexedItem previous = itemsById.get(id);
+        IndexedItem current = new IndexedItem(item);
+        Set<Long> currentGrams = current.grams();
+        Set<Long> currentBigrams = current.bigrams();
+
+        if (previous != null) {
+            previous.grams().stream()
+                    .filter(gram -> !currentGrams.contains(gram))
+                    .forEach(gram -> removePosting(postingsByGram, gram, id));
+            previous.bigrams().stream()
+                    .filter(bigram -> !currentBigrams.contains(bigram))
+                    .forEach(bigram -> removePosting(postingsByBigram, bigram, id));
+            previous.wordSuffixKeys().forEach(namesByWordSuffix::remove);
+        }
+
+        currentGrams.forEach(gram -> postingsByGram.computeIfAbsent(gram, g -> new PostingList()).add(id));
+        currentBigrams.forEach(bigram -> postingsByBigram.computeIfAbsent(bigram, b -> new PostingList()).add(id));
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            current.wordSuffixKeys().forEach(key -> namesByWordSuffix.put(key, item.getName()));
+        }
+        itemsById.put(id, current);
+        availableItems.set(id, Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    private static void removePosting(Map<Long, PostingList> postings, long gram, int id) {
+        PostingList posting = postings.get(gram);
+        posting.remove(id);
+
+        if (posting.size() == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    private static Set<Long> grams(String text) {
+        return Stream.iterate(0, i -> i + 1)
+                .limit(Math.max(0, text.length() - GRAM_LENGTH + 1))
+                .map(i -> (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Long> bigrams(String text) {
+        return Stream.iterate(0, i -> i + 1)
+                .limit(Math.max(0, text.length() - BIGRAM_LENGTH + 1))
+                .map(i -> (long) text.charAt(i) << 16 | text.charAt(i + 1))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Лучшие по паре (расстояние, id) вещи первых страниц нечеткого поиска.
+     */
+    private class FuzzyPage {
+        private final String query;
+        private final int maxDistance;
+        private final int limit;
+        private final LongPredicate filter;
+        // худший из лучших найденных результатов в голове очереди: {расстояние, id}
+        private final PriorityQueue<int[]> best;
+        private int merged;
+        private int rejected;
+
+        FuzzyPage(String query, int maxDistance, int limit, LongPredicate filter) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.limit = limit;
+            this.filter = filter;
+            this.best = new PriorityQueue<>(limit + 1, BY_DISTANCE_AND_ID.reversed());
+        }
+
+        /**
+         * Проверяет кандидата с нижней оценкой расстояния bound. Возвращает false, если страница заполнена вещами
+         * лучше этой пары: тогда ни он, ни кандидаты с большими парами ее уже не изменят. Также возвращает false
+         * после MAX_REJECTED_CANDIDATES отброшенных кандидатов: запрос почти без совпадений иначе проверял бы
+         * расстоянием почти все вещи, и страница собирается из уже найденных вещей.
+         */
+        boolean offer(int bound, int id) {
+            int[] worst = best.peek();
+
+            if (best.size() == limit && (worst[0] < bound || worst[0] == bound && worst[1] < id)) {
+                return false;
+            }
+
+            if (rejected == MAX_REJECTED_CANDIDATES) {
+                log.info("Нечеткий поиск по запросу '{}' остановлен после {} отброшенных кандидатов", query, rejected);
+                return false;
+            }
+
+            int distance = itemsById.get(id).distanceTo(query);
+
+            if (distance <= maxDistance && filter.test(id)) {
+                best.add(new int[]{distance, id});
+
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            } else {
+                rejected++;
+            }
+
+            return true;
+        }
+
+        /**
+         * Учитывает вещь, взятую из сливаемых списков граммов; false после MAX_MERGED_CANDIDATES вещей, потому что
+         * у запроса из частых граммов эти списки занимают почти весь каталог.
+         */
+        boolean merge() {
+            if (merged == MAX_MERGED_CANDIDATES) {
+                log.info("Нечеткий поиск по запросу '{}' остановлен после {} просмотренных кандидатов", query, merged);
+                return false;
+            }
+
+            merged++;
+            return true;
+        }
+
+        List<ItemDto> toItemDtos(int from) {
+            return best.stream()
+                    .sorted(BY_DISTANCE_AND_ID)
+                    .skip(from)
+                    .map(found -> itemsById.get(found[1]).toItemDto())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static class IndexedItem {
+        private final ItemDto item;
+        private final String name;
+        private final String description;
+
+        IndexedItem(ItemDto item) {
+            this.item = item;
+            this.name = item.getName().toLowerCase(Locale.ROOT);
+            this.description = item.getDescription().toLowerCase(Locale.ROOT);
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        int distanceTo(String query) {
+            return Math.min(getSubstringDistance(query, name), getSubstringDistance(query, description));
+        }
+
+        Set<Long> grams() {
+            Set<Long> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        Set<Long> bigrams() {
+            Set<Long> bigrams = ItemSearchIndex.bigrams(name);
+            bigrams.addAll(ItemSearchIndex.bigrams(description));
+            return bigrams;
+        }
+
+        List<String> wordSuffixKeys() {
+            List<String> keys = new ArrayList<>();
+
+            for (int i = 0; i < name.length(); i++) {
+                if (Character.isLetterOrDigit(name.charAt(i))
+                        && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)))) {
+                    keys.add(name.substring(i) + KEY_SEPARATOR + item.getId());
+                }
+            }
+
+            return keys;
+        }
+
+        ItemDto toItemDto() {
+            return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                    item.getRequestId());
+        }
+    }
+
+    private static class PostingList {
+        private int[] ids = new int[1];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        /**
+         * Первая позиция не раньше from с id не меньше заданного: шаг поиска удваивается, пока не перешагнет id,
+         * поэтому поиск возрастающих id с последней позиции обходит список в среднем за время его длины.
+         */
+        int seek(int from, int id) {
+            int step = 1;
+            int low = from;
+
+            while (low + step < size && ids[low + step] < id) {
+                low += step;
+                step *= 2;
+            }
+
+            if (low >= size || ids[low] >= id) {
+                return low;
+            }
+
+            int position = Arrays.binarySearch(ids, low + 1, Math.min(low + step + 1, size), id);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+
+            if (position >= 0) {
+                return;
+            }
+
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        void trim() {
+            ids = Arrays.copyOf(ids, size);
+        }
+    }
+}
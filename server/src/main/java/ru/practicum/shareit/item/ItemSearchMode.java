@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Способ поиска вещей по подстроке. Все режимы находят одни и те же вещи, но упорядочивают их по-разному.
+ */
+public enum ItemSearchMode {
+    /**
+     * Производный запрос upper(...) like upper(...) без индексов, порядок строк не задан.
+     */
+    LIKE,
+    /**
+     * Запрос ilike по GIN-индексам pg_trgm, вещи ранжируются по word_similarity с запросом, затем по id.
+     */
+    TRIGRAM,
+    /**
+     * Индекс ItemSearchIndex в памяти, вещи идут по возрастанию id без ранжирования: так страница собирается
+     * пересечением отсортированных списков и останавливается, как только заполнена, а ранжирование потребовало бы
+     * оценить все совпадения. Нечеткий поиск в любом режиме выполняется этим индексом
+     * и ранжирует по расстоянию правки.
+     */
+    INDEX
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 public interface ItemService {
@@ -15,7 +18,20 @@ public interface ItemService {
 
     List<ItemWithBookingDto> getUsersItems(long userId, int from, int size);
 
-    List<ItemDto> searchItems(String text, int from, int size);
+    List<ItemDto> searchItems(String text, int from, int size, boolean fuzzy, LocalDateTime start,
+                              LocalDateTime end);
+
+    List<String> suggestItemNames(String text, int size);
+
+    List<CommentDto> getComments(long itemId, long userId, int from, int size);
 
     CommentDto createComment(CommentDto commentDto, long userId, long itemId);
-}
\ No newline at end of file
+
+    /**
+     * Проверяет окно, пользователя и вещь сразу, а свободные интервалы вычисляет лениво, по мере обхода итератора,
+     * уже вне транзакции вызова. Поэтому результат не является снимком на один момент времени: изменения
+     * бронирований во время обхода видны в еще не прочитанной части окна.
+     */
+    Iterator<FreeIntervalDto> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to,
+                                              boolean includeWaiting);
+}
@@ -2,19 +2,27 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.BookingStorage;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.ItemBookingSummaryManager;
+import ru.practicum.shareit.booking.dto.SimpleBookingDto;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingMapper;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.AlreadyExistException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.model.Comment;
@@ -30,13 +38,14 @@ import ru.practicum.shareit.utils.Constants;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
-import static org.springframework.data.domain.Sort.Direction.ASC;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 import static ru.practicum.shareit.utils.Constants.*;
 
 @Service
@@ -49,6 +58,15 @@ public class ItemServiceImpl implements ItemService {
     private final BookingStorage bookingStorage;
     private final CommentStorage commentStorage;
     private final ItemRequestStorage itemRequestStorage;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ItemBookingSummaryManager summaryManager;
+    private final ItemSearchIndex searchIndex;
+    private final ItemSearchCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${shareit.item.search.mode}")
+    private ItemSearchMode searchMode;
+    @Value("${shareit.item.comments.latest-limit}")
+    private int latestCommentsLimit;
 
     @Override
     @Transactional(isolation = Isolation.REPEATABLE_READ)
@@ -71,7 +89,9 @@ public class ItemServiceImpl implements ItemService {
                 itemRequestStorage.findById(itemDto.getRequestId()).orElseThrow();
         Item savedItem = itemStorage.save(ItemMapper.toItem(itemDto, userRef, itemRequest));
         log.info("Создана вещь с id = {} у пользователя с id = {}", savedItem.getId(), userId);
-        return ItemMapper.toItemDto(savedItem);
+        ItemDto createdItem = ItemMapper.toItemDto(savedItem);
+        eventPublisher.publishEvent(ItemSavedEvent.created(createdItem, userId));
+        return createdItem;
     }
 
     @Override
@@ -90,6 +110,9 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException(String.format(USERS_ITEM_NOT_FOUND_MESSAGE, itemDto.getId(), userId));
         }
 
+        String previousName = currentItem.get().getName();
+        String previousDescription = currentItem.get().getDescription();
+
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
             currentItem.get().setName(itemDto.getName());
         }
@@ -104,35 +127,37 @@ public class ItemServiceImpl implements ItemService {
         }
 
         log.info("Обновлена информация о вещи с id = {} у пользователя с id = {}", itemDto.getId(), userId);
-        return ItemMapper.toItemDto(itemStorage.save(currentItem.get()));
+        ItemDto updatedItem = ItemMapper.toItemDto(itemStorage.save(currentItem.get()));
+        eventPublisher.publishEvent(ItemSavedEvent.updated(updatedItem, userId, previousName, previousDescription));
+        return updatedItem;
     }
 
     @Override
     public ItemWithBookingDto getItem(long itemId, long userId) {
-        if (!userStorage.existsById(userId)) {
+        Optional<Item> item = itemStorage.findByIdIfUserExists(itemId, userId);
+
+        if (item.isEmpty() && !userStorage.existsById(userId)) {
             log.warn("Выполнена попытка получить вещь несуществующим пользователем с id = {}", userId);
             throw new NotFoundException(String.format(Constants.USER_NOT_FOUND_MESSAGE, userId));
         }
 
-        Optional<Item> item = itemStorage.findById(itemId);
-        Booking lastBooking = null;
-        Booking nextBooking = null;
-
         if (item.isEmpty()) {
             log.warn("Выполнена попытка получить вещь по несуществующему id = {}", itemId);
             throw new NotFoundException(String.format(ITEM_NOT_FOUND_MESSAGE, itemId));
         }
 
-        if (item.get().getUser().getId().equals(userId)) {
-            List<Booking> sortedBookings = bookingStorage.findByItem_IdAndItem_User_IdAndStatusOrderByStartAsc(itemId,
-                    userId, Status.APPROVED);
+        SimpleBookingDto lastBooking = null;
+        SimpleBookingDto nextBooking = null;
 
-            Booking[] bookings = findLastAndNextBookings(sortedBookings);
-            lastBooking = bookings[0];
-            nextBooking = bookings[1];
+        if (item.get().getUser().getId().equals(userId)) {
+            LocalDateTime now = LocalDateTime.now();
+            BookingInterval[] bookings = findLastAndNextBookings(itemId, now);
+            lastBooking = BookingMapper.toSimpleBookingDto(bookings[0]);
+            nextBooking = BookingMapper.toSimpleBookingDto(bookings[1]);
         }
 
-        List<Comment> comments = commentStorage.findByItem_IdOrderByIdAsc(itemId);
+        List<CommentView> comments = commentStorage.findLatestViewsByItemIdIn(List.of(itemId),
+                latestCommentsLimit);
         log.info("Получен список отзывов на вещь с id = {} длиной {}", itemId, comments.size());
         log.info("Получена вещь с с id = {}", itemId);
         return ItemMapper.toItemWithBookingDto(item.get(), lastBooking, nextBooking, comments);
@@ -141,35 +166,24 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemWithBookingDto> getUsersItems(long userId, int from, int size) {
         Pageable page = PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"));
-        Page<Item> items = itemStorage.findByUser_Id(userId, page);
+        Slice<Item> items = itemStorage.findByUser_Id(userId, page);
         List<Long> ids = items.stream().map(Item::getId).collect(Collectors.toList());
 
         LocalDateTime now = LocalDateTime.now();
 
-        Map<Long, List<Comment>> comments = commentStorage.findByItem_IdInOrderByIdAsc(ids)
+        Map<Long, List<CommentView>> comments = commentStorage.findLatestViewsByItemIdIn(ids, latestCommentsLimit)
                 .stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId(), Collectors.toList()));
-
-        Map<Long, List<Booking>> lastBookings = bookingStorage
-                .findByItemIdInAndStartBeforeAndStatus(ids, now, Status.APPROVED, Sort.by(DESC, "start"))
-                .stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId(), Collectors.toList()));
-
-        Map<Long, List<Booking>> nextBookings = bookingStorage
-                .findByItemIdInAndStartAfterAndStatus(ids, now, Status.APPROVED, Sort.by(ASC, "start"))
-                .stream()
-                .collect(Collectors.groupingBy(c -> c.getItem().getId(), Collectors.toList()));
-
+                .collect(Collectors.groupingBy(CommentView::getItemId, Collectors.toList()));
 
+        Map<Long, BookingInterval[]> bookings = summaryManager.getLastAndNextBookings(ids, now);
         List<ItemWithBookingDto> mappedItems = new ArrayList<>();
 
         for (Item item : items) {
-            Booking lastBooking = getFirstBooking(lastBookings.get(item.getId()));
-            Booking nextBooking = getFirstBooking(nextBookings.get(item.getId()));
+            BookingInterval[] itemBookings = bookings.getOrDefault(item.getId(), new BookingInterval[2]);
 
             mappedItems.add(ItemMapper.toItemWithBookingDto(item,
-                    lastBooking,
-                    nextBooking,
+                    BookingMapper.toSimpleBookingDto(itemBookings[0]),
+                    BookingMapper.toSimpleBookingDto(itemBookings[1]),
                     comments.getOrDefault(item.getId(), List.of())));
         }
 
@@ -177,20 +191,55 @@ public class ItemServiceImpl implements ItemService {
         return mappedItems;
     }
 
-    private Booking getFirstBooking(List<Booking> list) {
-        return (list == null || list.isEmpty()) ? null : list.get(0);
-    }
-
     @Override
-    public List<ItemDto> searchItems(String text, int from, int size) {
+    public List<ItemDto> searchItems(String text, int from, int size, boolean fuzzy, LocalDateTime start,
+                                     LocalDateTime end) {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
 
+        checkSearchWindow(start, end);
+
+        // результаты с интервалом зависят еще и от бронирований, поэтому не кэшируются; нечеткий поиск до загрузки
+        // индекса выполняется точным запросом к базе, и такая страница не должна остаться в кэше вместо нечеткой
+        if (start != null || fuzzy && !searchIndex.isReady()) {
+            return findItems(text, from, size, fuzzy, start, end);
+        }
+
+        return searchCache.get(text, from / size * size, size, fuzzy,
+                () -> findItems(text, from, size, fuzzy, null, null));
+    }
+
+    private List<ItemDto> findItems(String text, int from, int size, boolean fuzzy, LocalDateTime start,
+                                    LocalDateTime end) {
+        boolean hasWindow = start != null;
+        int offset = from / size * size;
+
+        if ((fuzzy || searchMode == ItemSearchMode.INDEX) && searchIndex.isReady()
+                && (!hasWindow || availabilityIndex.isReady())) {
+            LongPredicate isFree = hasWindow ? id -> !availabilityIndex.hasCrossing(id, start, end) : id -> true;
+            List<ItemDto> searchedItems = fuzzy
+                    ? searchIndex.searchFuzzy(text, offset, size, isFree)
+                    : searchIndex.search(text, offset, size, isFree);
+            log.info("Получен из индекса список вещей длиной {}, найденный по поисковой строке: {}",
+                    searchedItems.size(), text);
+            return searchedItems;
+        }
+
         Pageable page = PageRequest.of(from / size, size);
-        Page<Item> searchedItems = itemStorage
-                .findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(text, text,
-                        page);
+        String pattern = "%" + escapeLikePattern(text) + "%";
+        Slice<Item> searchedItems;
+
+        if (searchMode == ItemSearchMode.TRIGRAM) {
+            searchedItems = hasWindow
+                    ? itemStorage.searchAvailableByTrigramsInWindow(text, pattern, start, end, page)
+                    : itemStorage.searchAvailableByTrigrams(text, pattern, page);
+        } else {
+            searchedItems = hasWindow
+                    ? itemStorage.searchAvailableInWindow(pattern, Status.APPROVED, start, end, page)
+                    : itemStorage.findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(
+                    text, text, page);
+        }
 
         log.info("Получен список вещей длиной {}, найденный по поисковой строке: {}",
                 searchedItems.getContent().size(), text);
@@ -198,7 +247,38 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public List<String> suggestItemNames(String text, int size) {
+        if (text.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        if (searchIndex.isReady()) {
+            return searchIndex.suggest(text, size);
+        }
+
+        String prefix = escapeLikePattern(text) + "%";
+        return itemStorage.findAvailableNames(prefix, "% " + prefix, PageRequest.of(0, size));
+    }
+
+    @Override
+    public List<CommentDto> getComments(long itemId, long userId, int from, int size) {
+        if (!userStorage.existsById(userId)) {
+            log.warn("Выполнена попытка получить отзывы несуществующим пользователем с id = {}", userId);
+            throw new NotFoundException(String.format(Constants.USER_NOT_FOUND_MESSAGE, userId));
+        }
+
+        if (!itemStorage.existsById(itemId)) {
+            log.warn("Выполнена попытка получить отзывы на вещь по несуществующему id = {}", itemId);
+            throw new NotFoundException(String.format(ITEM_NOT_FOUND_MESSAGE, itemId));
+        }
+
+        List<CommentView> comments = commentStorage.findViewsByItemId(itemId, PageRequest.of(from / size, size));
+        log.info("Получен список отзывов на вещь с id = {} длиной {}", itemId, comments.size());
+        return CommentMapper.toCommentDto(comments);
+    }
+
+    @Override
+    @Transactional
     public CommentDto createComment(CommentDto commentDto, long userId, long itemId) {
         if (!bookingStorage.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(itemId, userId, Status.APPROVED,
                 LocalDateTime.now())) {
@@ -207,6 +287,13 @@ public class ItemServiceImpl implements ItemService {
             throw new IllegalArgumentException("User " + userId + " не может комментировать вещь " + itemId);
         }
 
+        // увеличение счетчика блокирует строку вещи и упорядочивает параллельные отзывы на нее, поэтому проверка
+        // повторного отзыва после него видит отзывы, сохраненные конкурирующими транзакциями
+        if (itemStorage.incrementCommentsCount(itemId) == 0) {
+            log.warn("Выполнена попытка оставить отзыв на несуществующую вещь с id = {}", itemId);
+            throw new NotFoundException(String.format(ITEM_NOT_FOUND_MESSAGE, itemId));
+        }
+
         if (commentStorage.existsByItem_IdAndAuthor_Id(itemId, userId)) {
             log.warn("Выполнена попытка повторно оставить отзыв на вещь с id = {} пользователем с id = {}",
                     itemId, userId);
@@ -221,38 +308,142 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.toCommentDto(comment);
     }
 
-    private Booking[] findLastAndNextBookings(List<Booking> sortedBookings) {
-        Booking lastBooking = null;
-        Booking nextBooking = null;
+    @Override
+    public Iterator<FreeIntervalDto> getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to,
+                                                     boolean includeWaiting) {
+        if (!from.isBefore(to)) {
+            log.warn("Выполнена попытка получить свободное время вещи с id = {} в некорректном интервале: from = {}," +
+                    " to = {}", itemId, from, to);
+            throw new IllegalArgumentException(WRONG_AVAILABILITY_WINDOW_MESSAGE);
+        }
 
-        if (!sortedBookings.isEmpty()) {
-            int nextBookingNumber = findNextBookingNumber(sortedBookings, LocalDateTime.now());
+        if (!userStorage.existsById(userId)) {
+            log.warn("Выполнена попытка получить свободное время вещи несуществующим пользователем с id = {}", userId);
+            throw new NotFoundException(String.format(USER_NOT_FOUND_MESSAGE, userId));
+        }
 
-            if (nextBookingNumber == -1) {
-                lastBooking = sortedBookings.get(sortedBookings.size() - 1);
-            } else if (nextBookingNumber == 0) {
-                nextBooking = sortedBookings.get(nextBookingNumber);
-            } else {
-                nextBooking = sortedBookings.get(nextBookingNumber);
-                lastBooking = sortedBookings.get(nextBookingNumber - 1);
-            }
-        } else {
-            return new Booking[]{null, null};
+        if (!itemStorage.existsById(itemId)) {
+            log.warn("Выполнена попытка получить свободное время вещи по несуществующему id = {}", itemId);
+            throw new NotFoundException(String.format(ITEM_NOT_FOUND_MESSAGE, itemId));
+        }
+
+        List<Status> statuses = includeWaiting ? List.of(Status.APPROVED, Status.WAITING) : List.of(Status.APPROVED);
+        log.info("Получение свободного времени вещи с id = {} с {} по {}", itemId, from, to);
+        return new FreeIntervalIterator(itemId, statuses, from, to);
+    }
+
+    private BookingInterval[] findLastAndNextBookings(long itemId, LocalDateTime time) {
+        if (availabilityIndex.isReady()) {
+            return new BookingInterval[]{availabilityIndex.findLast(itemId, time), availabilityIndex.findNext(itemId, time)};
         }
 
-        return new Booking[]{lastBooking, nextBooking};
+        return summaryManager.findLastAndNextBookings(itemId, time);
     }
 
-    private int findNextBookingNumber(List<Booking> sortedBookings, LocalDateTime time) {
-        int number = -1;
+    private void checkSearchWindow(LocalDateTime start, LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            log.warn("Выполнена попытка найти вещи по неполному интервалу: start = {}, end = {}", start, end);
+            throw new IllegalArgumentException(INCOMPLETE_SEARCH_WINDOW_MESSAGE);
+        }
 
-        for (int i = 0; i < sortedBookings.size(); i++) {
-            if (sortedBookings.get(i).getStart().isAfter(time)) {
-                number = i;
-                break;
+        if (start != null && !start.isBefore(end)) {
+            log.warn("Выполнена попытка найти вещи по некорректному интервалу: start = {}, end = {}", start, end);
+            throw new IllegalArgumentException(WRONG_AVAILABILITY_WINDOW_MESSAGE);
+        }
+    }
+
+    private String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    /**
+     * Вычисляет свободные интервалы по мере чтения. Бронирования читаются порциями отдельными короткими запросами,
+     * поэтому соединение с базой данных не удерживается, пока интервалы пишутся клиенту.
+     * Результат согласован слабо: каждая порция видит базу на момент своего запроса, а не на момент вызова
+     * getAvailability. Бронирование, подтвержденное или отмененное во время чтения, учитывается, только если
+     * оно начинается позже уже прочитанной порции. Интервалы при этом всегда упорядочены и не пересекаются.
+     */
+    @RequiredArgsConstructor
+    private class FreeIntervalIterator implements Iterator<FreeIntervalDto> {
+        private final long itemId;
+        private final List<Status> statuses;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private List<BookingInterval> chunk = List.of();
+        private int position;
+        private BookingInterval lastBooking;
+        private boolean lastChunkRead;
+        private LocalDateTime freeFrom;
+        private FreeIntervalDto next;
+        private boolean finished;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = findNext();
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public FreeIntervalDto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            FreeIntervalDto result = next;
+            next = null;
+            return result;
+        }
+
+        private FreeIntervalDto findNext() {
+            if (freeFrom == null) {
+                freeFrom = from;
+            }
+
+            BookingInterval booking;
+
+            while ((booking = nextBooking()) != null) {
+                LocalDateTime freeTo = booking.getStart();
+                LocalDateTime previousFreeFrom = freeFrom;
+
+                if (booking.getEnd().isAfter(freeFrom)) {
+                    freeFrom = booking.getEnd();
+                }
+
+                if (freeTo.isAfter(previousFreeFrom)) {
+                    return new FreeIntervalDto(previousFreeFrom, freeTo);
+                }
             }
+
+            finished = true;
+            return freeFrom.isBefore(to) ? new FreeIntervalDto(freeFrom, to) : null;
         }
 
-        return number;
+        private BookingInterval nextBooking() {
+            if (position == chunk.size()) {
+                if (lastChunkRead) {
+                    return null;
+                }
+
+                Pageable page = PageRequest.of(0, AVAILABILITY_CHUNK_SIZE);
+                chunk = lastBooking == null
+                        ? bookingStorage.findIntervalsInItemWindow(itemId, statuses, from, to, page)
+                        : bookingStorage.findIntervalsInItemWindowAfter(itemId, statuses, from, to,
+                        lastBooking.getStart(), lastBooking.getId(), page);
+                position = 0;
+                lastChunkRead = chunk.size() < AVAILABILITY_CHUNK_SIZE;
+
+                if (chunk.isEmpty()) {
+                    return null;
+                }
+            }
+
+            lastBooking = chunk.get(position++);
+            return lastBooking;
+        }
     }
 }
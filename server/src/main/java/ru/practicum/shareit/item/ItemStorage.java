@@ -1,19 +1,81 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemStorage extends JpaRepository<Item, Long> {
-    Page<Item> findByUser_Id(Long userId, Pageable pageable);
+    Slice<Item> findByUser_Id(Long userId, Pageable pageable);
 
-    Page<Item> findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(
+    Slice<Item> findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(
             String descriptionSearch, String nameSearch, Pageable pageable);
 
-    boolean existsByUser_IdAndId(Long userId, Long itemId);
+    @Query(value = "select * from items i where i.available and (i.name ilike :pattern or i.description ilike :pattern) " +
+            "order by greatest(word_similarity(:text, i.name), word_similarity(:text, i.description)) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchAvailableByTrigrams(@Param("text") String text, @Param("pattern") String pattern,
+                                          Pageable pageable);
+
+    @Query(value = "select * from items i where i.available and (i.name ilike :pattern or i.description ilike :pattern) " +
+            "and not exists (select 1 from bookings b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.start_date < :end and b.end_date > :start) " +
+            "order by greatest(word_similarity(:text, i.name), word_similarity(:text, i.description)) desc, i.id",
+            nativeQuery = true)
+    Slice<Item> searchAvailableByTrigramsInWindow(@Param("text") String text, @Param("pattern") String pattern,
+                                                  @Param("start") LocalDateTime start,
+                                                  @Param("end") LocalDateTime end, Pageable pageable);
+
+    @Query("select i from Item i where i.available = true " +
+            "and (upper(i.name) like upper(:pattern) or upper(i.description) like upper(:pattern)) " +
+            "and not exists (select b.id from Booking b where b.item = i and b.status = :status " +
+            "and b.start < :end and b.end > :start)")
+    Slice<Item> searchAvailableInWindow(@Param("pattern") String pattern, @Param("status") Status status,
+                                        @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                        Pageable pageable);
+
+    @Query("select i from Item i where i.id = :itemId and exists (select u.id from User u where u.id = :userId)")
+    Optional<Item> findByIdIfUserExists(@Param("itemId") Long itemId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Item i set i.commentsCount = i.commentsCount + 1 where i.id = :itemId")
+    int incrementCommentsCount(@Param("itemId") Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findLockedByIdInOrderByIdAsc(Collection<Long> itemIds);
+
+    @Query("select distinct i.name from Item i where i.available = true and (upper(i.name) like upper(:namePattern) " +
+            "or upper(i.name) like upper(:wordPattern)) order by i.name")
+    List<String> findAvailableNames(@Param("namePattern") String namePattern,
+                                    @Param("wordPattern") String wordPattern, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) from Item i")
+    Stream<ItemDto> streamAllDtos();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) from Item i where i.itemRequest.id = :requestId order by i.id")
+    List<ItemDto> findByItemRequest_Id(@Param("requestId") Long requestId);
 
-    List<Item> findByItemRequest_Id(Long id);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.itemRequest.id) from Item i where i.itemRequest.id in :requestIds order by i.id")
+    List<ItemDto> findByItemRequest_IdIn(@Param("requestIds") Collection<Long> requestIds);
 }
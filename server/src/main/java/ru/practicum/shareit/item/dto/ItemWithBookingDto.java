@@ -19,5 +19,6 @@ public class ItemWithBookingDto {
     private Long requestId;
     private SimpleBookingDto lastBooking;
     private SimpleBookingDto nextBooking;
+    private long commentsCount;
     private List<CommentDto> comments;
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -29,7 +30,16 @@ public class CommentMapper {
         );
     }
 
-    public static List<CommentDto> toCommentDto(List<Comment> comments) {
+    public static CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(
+                comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated()
+        );
+    }
+
+    public static List<CommentDto> toCommentDto(List<CommentView> comments) {
         return comments.stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
@@ -29,6 +29,8 @@ public class Item {
     @JoinColumn(name = "request_id")
     @ToString.Exclude
     private ItemRequest itemRequest;
+    @Column(name = "comments_count", updatable = false)
+    private long commentsCount;
 
     public Item(long id) {
         this.id = id;
@@ -1,8 +1,8 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingMapper;
+import ru.practicum.shareit.booking.dto.SimpleBookingDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -20,7 +20,8 @@ public class ItemMapper {
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
                 owner,
-                itemRequest
+                itemRequest,
+                0
         );
     }
 
@@ -34,16 +35,17 @@ public class ItemMapper {
         );
     }
 
-    public static ItemWithBookingDto toItemWithBookingDto(Item item, Booking lastBooking, Booking nextBooking,
-                                                          List<Comment> comments) {
+    public static ItemWithBookingDto toItemWithBookingDto(Item item, SimpleBookingDto lastBooking,
+                                                          SimpleBookingDto nextBooking, List<CommentView> comments) {
         return new ItemWithBookingDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.isAvailable(),
                 item.getItemRequest() == null ? null : item.getItemRequest().getId(),
-                BookingMapper.toSimpleBookingDto(lastBooking),
-                BookingMapper.toSimpleBookingDto(nextBooking),
+                lastBooking,
+                nextBooking,
+                item.getCommentsCount(),
                 CommentMapper.toCommentDto(comments)
         );
     }
@@ -2,15 +2,19 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.CreateItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.utils.Constants;
 
 import java.util.List;
 
 import static ru.practicum.shareit.utils.Constants.HEADER_WITH_USER_ID_NAME;
+import static ru.practicum.shareit.utils.Constants.LAST_EVENT_ID_HEADER_NAME;
 
 @RestController
 @RequestMapping(path = "/requests")
@@ -47,4 +51,30 @@ public class ItemRequestController {
         log.info("Попытка получить {} запросов начиная с {}", size, from);
         return itemRequestService.getRequests(userId, from, size);
     }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToRequests(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
+                                          @RequestHeader(value = LAST_EVENT_ID_HEADER_NAME, required = false)
+                                          Long lastEventId) {
+        log.info("Попытка подписаться на поток запросов пользователем с id = {}", userId);
+        return itemRequestService.subscribeToRequests(userId, lastEventId);
+    }
+
+    @GetMapping("/matches")
+    public List<RequestMatchDto> getRequestMatches(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
+                                                   @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
+                                                   @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Попытка получить {} вещей, подобранных к запросам пользователя с id = {}, начиная с {}", size,
+                userId, from);
+        return itemRequestService.getRequestMatches(userId, from, size);
+    }
+
+    @GetMapping("/all/matches")
+    public List<RequestMatchDto> getItemMatches(@RequestHeader(HEADER_WITH_USER_ID_NAME) long userId,
+                                                @RequestParam(defaultValue = Constants.DEFAULT_START_PAGE) int from,
+                                                @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Попытка получить {} запросов, подобранных к вещам пользователя с id = {}, начиная с {}", size,
+                userId, from);
+        return itemRequestService.getItemMatches(userId, from, size);
+    }
 }
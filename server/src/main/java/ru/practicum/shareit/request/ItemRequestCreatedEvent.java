@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+/**
+ * Публикуется при создании запроса вещи.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestCreatedEvent {
+    private final ItemRequestDto request;
+    private final long requestorId;
+}
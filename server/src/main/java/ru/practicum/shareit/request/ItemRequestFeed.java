@@ -0,0 +1,266 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.ItemSavedEvent;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Поток server-sent events о новых запросах на вещи и ответах на них.
+ * Подключение не занимает поток: у каждого подписчика есть ограниченная очередь событий, которую разбирает
+ * общий небольшой пул потоков доставки. Подписчик, не успевающий читать события, отключается при переполнении
+ * очереди или если отправка ему длится дольше shareit.request.feed.send-timeout, и может переподключиться
+ * с заголовком Last-Event-ID, чтобы получить пропущенные события из истории. Запись в сокет выполняется
+ * в ограниченном пуле отправки, а поток доставки ждет ее не дольше send-timeout: зависшая запись занимает только
+ * поток отправки, пока ее не прервет сам контейнер, а если свободных потоков отправки нет, подписчик отключается.
+ * Поток локален для экземпляра сервера.
+ */
+@Component
+@Slf4j
+public class ItemRequestFeed {
+    private static final String REQUEST_EVENT = "request";
+    private static final String ANSWER_EVENT = "answer";
+    private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null, 0);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<FeedEvent> history = new ArrayDeque<>();
+    private final ExecutorService deliveryExecutor;
+    private final ExecutorService sendExecutor;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final int bufferSize;
+    private final int historySize;
+    private long lastEventId;
+
+    public ItemRequestFeed(@Value("${shareit.request.feed.timeout}") Duration timeout,
+                           @Value("${shareit.request.feed.send-timeout}") Duration sendTimeout,
+                           @Value("${shareit.request.feed.buffer-size}") int bufferSize,
+                           @Value("${shareit.request.feed.history-size}") int historySize,
+                           @Value("${shareit.request.feed.delivery-threads}") int deliveryThreads,
+                           @Value("${shareit.request.feed.send-threads}") int sendThreads) {
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads);
+        // без очереди: каждый поток доставки ждет одну запись, остальные потоки заняты зависшими записями
+        this.sendExecutor = new ThreadPoolExecutor(deliveryThreads, Math.max(deliveryThreads, sendThreads),
+                1, TimeUnit.MINUTES, new SynchronousQueue<>());
+        // номера событий продолжают расти после перезапуска, и Last-Event-ID клиента не опережает их
+        this.lastEventId = System.currentTimeMillis();
+    }
+
+    public SseEmitter subscribe(long userId, Long lastSeenEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            if (lastSeenEventId != null) {
+                history.stream()
+                        .filter(event -> event.id > lastSeenEventId)
+                        .forEach(subscriber::offer);
+            }
+
+            // заголовки ответа уходят с первой записью, поэтому без пропущенных событий комментарий сразу
+            // открывает поток для клиента и шлюза, не дожидаясь нового события или heartbeat
+            if (subscriber.events.isEmpty()) {
+                subscriber.offer(HEARTBEAT);
+            }
+
+            subscribers.add(subscriber);
+        }
+
+        log.info("Пользователь с id = {} подписался на поток запросов, подписчиков: {}", userId, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ItemRequestCreatedEvent event) {
+        publish(REQUEST_EVENT, event.getRequest(), event.getRequestorId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        // в поток попадают только новые ответы на запросы
+        if (event.isCreated() && event.getItem().getRequestId() != null) {
+            publish(ANSWER_EVENT, event.getItem(), event.getOwnerId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.request.feed.heartbeat}")
+    public void sendHeartbeat() {
+        // комментарий не виден клиенту, но позволяет обнаружить и закрыть оборванные соединения
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publish(String name, Object data, long authorId) {
+        FeedEvent event;
+
+        synchronized (this) {
+            event = new FeedEvent(++lastEventId, name, data, authorId);
+            history.addLast(event);
+
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+
+            // под той же блокировкой, что и подписка: новый подписчик получает событие либо из истории,
+            // либо из очереди, но не дважды, а порядок событий в очередях совпадает с историей
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class FeedEvent {
+        private final long id;
+        private final String name;
+        private final Object data;
+        private final long authorId;
+
+        boolean isHeartbeat() {
+            return name == null;
+        }
+    }
+
+    private class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Queue<FeedEvent> events = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // последняя запись; ее читает и меняет только поток, разбирающий очередь
+        private CompletableFuture<Void> sending = CompletableFuture.completedFuture(null);
+
+        Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(FeedEvent event) {
+            // пользователю не присылаются его собственные запросы и ответы
+            if (closed.get() || !event.isHeartbeat() && event.authorId == userId) {
+                return;
+            }
+
+            if (!events.offer(event)) {
+                log.warn("Подписчик с id = {} не успевает читать поток запросов и будет отключен", userId);
+                disconnect();
+                return;
+            }
+
+            schedule();
+        }
+
+        void disconnect() {
+            // не блокирует вызывающий поток: идущая отправка держит монитор emitter, поэтому соединение закрывается
+            // после ее завершения
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                events.clear();
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                FeedEvent event;
+
+                while (!closed.get() && (event = events.poll()) != null) {
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                disconnect();
+            }
+
+            if (closed.get()) {
+                // флаг не сбрасывается: отключенному подписчику больше ничего не отправляется. Зависшая запись
+                // закроет соединение в потоке отправки, когда завершится, а поток доставки не ждет ее
+                sending.whenComplete((ignored, e) -> emitter.complete());
+                return;
+            }
+
+            scheduled.set(false);
+
+            // событие или отключение могли произойти после опустошения очереди, но до сброса флага
+            if (closed.get() || !events.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(FeedEvent event) throws IOException {
+            SseEmitter.SseEventBuilder message = event.isHeartbeat()
+                    ? SseEmitter.event().comment("")
+                    : SseEmitter.event().id(String.valueOf(event.id)).name(event.name).data(event.data);
+
+            try {
+                sending = CompletableFuture.runAsync(() -> {
+                    try {
+                        emitter.send(message);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, sendExecutor);
+            } catch (RejectedExecutionException e) {
+                log.warn("Все потоки отправки заняты зависшими подписчиками, подписчик с id = {} будет отключен",
+                        userId);
+                disconnect();
+                return;
+            }
+
+            try {
+                sending.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Отправка подписчику с id = {} длится дольше {}, он будет отключен", userId, sendTimeout);
+                disconnect();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof UncheckedIOException
+                        ? ((UncheckedIOException) e.getCause()).getCause()
+                        : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                disconnect();
+            }
+        }
+    }
+}
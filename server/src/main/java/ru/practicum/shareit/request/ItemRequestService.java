@@ -1,8 +1,10 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.CreateItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 
 import java.util.List;
 
@@ -14,4 +16,10 @@ public interface ItemRequestService {
     ItemRequestWithAnswersDto getRequestById(long userId, long requestId);
 
     List<ItemRequestWithAnswersDto> getRequests(long userId, int from, int size);
+
+    SseEmitter subscribeToRequests(long userId, Long lastEventId);
+
+    List<RequestMatchDto> getRequestMatches(long userId, int from, int size);
+
+    List<RequestMatchDto> getItemMatches(long userId, int from, int size);
 }
@@ -2,17 +2,21 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemStorage;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.CreateItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestMapper;
 import ru.practicum.shareit.user.UserStorage;
@@ -21,17 +25,24 @@ import ru.practicum.shareit.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestStorage itemRequestStorage;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
+    private final RequestMatchStorage matchStorage;
+    private final ItemRequestFeed requestFeed;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public ItemRequestDto createItemRequest(long userId, CreateItemRequestDto createItemRequestDto) {
         checkUserExistence(userId,
                 "Выполнена попытка создать запрос на вещь пользователем с несуществующим id = {}");
@@ -41,7 +52,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 user));
 
         log.info("Создан запрос на вещь с id = {}, пользователем с id = {}", createdRequest.getId(), userId);
-        return ItemRequestMapper.toItemRequestDto(createdRequest);
+        ItemRequestDto createdRequestDto = ItemRequestMapper.toItemRequestDto(createdRequest);
+        eventPublisher.publishEvent(new ItemRequestCreatedEvent(createdRequestDto, userId));
+        return createdRequestDto;
     }
 
     @Override
@@ -50,11 +63,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 "несуществующим id = {}");
 
         List<ItemRequest> userRequests = itemRequestStorage.findByRequestor_IdOrderByCreatedDesc(userId);
-        List<ItemRequestWithAnswersDto> userRequestsWithAnswers = new ArrayList<>();
-
-        for (ItemRequest request : userRequests) {
-            userRequestsWithAnswers.add(findAnswersForRequest(request));
-        }
+        List<ItemRequestWithAnswersDto> userRequestsWithAnswers = findAnswersForRequests(userRequests);
 
         log.info("Получен список запросов пользователя с id = {} длиной {}", userId, userRequestsWithAnswers.size());
         return userRequestsWithAnswers;
@@ -82,15 +91,44 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         Sort sortByCreation = Sort.by(Sort.Direction.DESC, "created");
         Pageable page = PageRequest.of(from / size, size, sortByCreation);
-        Page<ItemRequest> itemRequestsPage = itemRequestStorage.findByRequestor_IdNot(userId, page);
+        Slice<ItemRequest> itemRequestsPage = itemRequestStorage.findByRequestor_IdNot(userId, page);
 
-        List<ItemRequestWithAnswersDto> itemRequests = new ArrayList<>();
-        itemRequestsPage.getContent().forEach(itemRequest -> itemRequests.add(findAnswersForRequest(itemRequest)));
+        List<ItemRequestWithAnswersDto> itemRequests = findAnswersForRequests(itemRequestsPage.getContent());
 
         log.info("Получен список запросов длиной {}", itemRequests.size());
         return itemRequests;
     }
 
+    @Override
+    public SseEmitter subscribeToRequests(long userId, Long lastEventId) {
+        checkUserExistence(userId, "Выполнена попытка подписаться на поток запросов пользователем с " +
+                "несуществующим id = {}");
+
+        return requestFeed.subscribe(userId, lastEventId);
+    }
+
+    @Override
+    public List<RequestMatchDto> getRequestMatches(long userId, int from, int size) {
+        checkUserExistence(userId, "Выполнена попытка получить вещи, подобранные к запросам пользователя с " +
+                "несуществующим id = {}");
+
+        List<RequestMatchDto> matches = matchStorage.findByRequestorId(userId, PageRequest.of(from / size, size));
+        log.info("Получен список вещей, подобранных к запросам пользователя с id = {}, длиной {}", userId,
+                matches.size());
+        return matches;
+    }
+
+    @Override
+    public List<RequestMatchDto> getItemMatches(long userId, int from, int size) {
+        checkUserExistence(userId, "Выполнена попытка получить запросы, подобранные к вещам пользователя с " +
+                "несуществующим id = {}");
+
+        List<RequestMatchDto> matches = matchStorage.findByOwnerId(userId, PageRequest.of(from / size, size));
+        log.info("Получен список запросов, подобранных к вещам пользователя с id = {}, длиной {}", userId,
+                matches.size());
+        return matches;
+    }
+
     private void checkUserExistence(long userId, String logMessage) {
         if (!userStorage.existsById(userId)) {
             log.warn(logMessage, userId);
@@ -99,10 +137,30 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     private ItemRequestWithAnswersDto findAnswersForRequest(ItemRequest request) {
-        List<Item> itemsForRequest = itemStorage.findByItemRequest_Id(request.getId());
+        List<ItemDto> itemsForRequest = itemStorage.findByItemRequest_Id(request.getId());
         log.info("Получен список вещей длиной {} созданных по запросу с id = {}", itemsForRequest.size(),
                 request.getId());
 
         return ItemRequestMapper.toItemRequestWithAnswersDto(request, itemsForRequest);
     }
+
+    private List<ItemRequestWithAnswersDto> findAnswersForRequests(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> answers = itemStorage.findByItemRequest_IdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId, Collectors.toList()));
+        log.info("Получен список вещей длиной {} созданных по запросам с id = {}",
+                answers.values().stream().mapToInt(List::size).sum(), requestIds);
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestWithAnswersDto(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
 }
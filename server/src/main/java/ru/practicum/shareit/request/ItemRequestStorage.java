@@ -1,14 +1,26 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequestor_IdOrderByCreatedDesc(Long id);
 
-    Page<ItemRequest> findByRequestor_IdNot(Long id, Pageable pageable);
+    Slice<ItemRequest> findByRequestor_IdNot(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) " +
+            "from ItemRequest r where not exists (select i.id from Item i where i.itemRequest = r)")
+    Stream<ItemRequestDto> streamOpenDtos();
 }
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс слов открытых запросов (без ответов) и доступных вещей для подбора вещей к запросам.
+ * Слова приводятся к нижнему регистру и грубо усекаются до основы, чтобы совпадали формы одного слова.
+ * Оценка совпадения - доля веса слов запроса, встречающихся в названии или описании вещи; вес слова тем меньше,
+ * чем в большем числе запросов и вещей оно встречается.
+ * Индекс локален для экземпляра сервера: источником истины остаются таблицы requests и items.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RequestMatchIndex {
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MIN_STEM_LENGTH = 4;
+    private static final int MAX_ENDING_LENGTH = 2;
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemStorage itemStorage;
+    private final Map<String, Set<Long>> requestsByToken = new HashMap<>();
+    private final Map<Long, Set<String>> tokensByRequest = new HashMap<>();
+    private final Map<String, Set<Long>> itemsByToken = new HashMap<>();
+    private final Map<Long, Set<String>> tokensByItem = new HashMap<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            requestsByToken.clear();
+            tokensByRequest.clear();
+            itemsByToken.clear();
+            tokensByItem.clear();
+            documentFrequency.clear();
+
+            try (Stream<ItemRequestDto> requests = itemRequestStorage.streamOpenDtos()) {
+                requests.forEach(request -> putRequest(request.getId(), request.getDescription()));
+            }
+
+            try (Stream<ItemDto> items = itemStorage.streamAllDtos()) {
+                items.forEach(this::putItem);
+            }
+
+            ready = true;
+            log.info("Построен индекс подбора вещей для {} открытых запросов и {} доступных вещей",
+                    tokensByRequest.size(), tokensByItem.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<Long, Double> scoreRequests(ItemDto item) {
+        Set<String> itemTokens = tokenize(item.getName() + " " + item.getDescription());
+        Map<Long, Double> sharedWeights = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (String token : itemTokens) {
+                double weight = getWeight(token);
+                requestsByToken.getOrDefault(token, Set.of())
+                        .forEach(requestId -> sharedWeights.merge(requestId, weight, Double::sum));
+            }
+
+            return sharedWeights.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey,
+                            entry -> entry.getValue() / getTotalWeight(tokensByRequest.get(entry.getKey()))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, Double> scoreItems(String requestDescription) {
+        Set<String> requestTokens = tokenize(requestDescription);
+        Map<Long, Double> sharedWeights = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (String token : requestTokens) {
+                double weight = getWeight(token);
+                itemsByToken.getOrDefault(token, Set.of())
+                        .forEach(itemId -> sharedWeights.merge(itemId, weight, Double::sum));
+            }
+
+            double totalWeight = getTotalWeight(requestTokens);
+            return sharedWeights.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() / totalWeight));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(ItemRequestCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            putRequest(event.getRequest().getId(), event.getRequest().getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        ItemDto item = event.getItem();
+
+        lock.writeLock().lock();
+        try {
+            // запрос, на который ответили вещью, больше не открыт
+            if (item.getRequestId() != null) {
+                remove(item.getRequestId(), tokensByRequest, requestsByToken);
+            }
+
+            putItem(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putRequest(long requestId, String description) {
+        put(requestId, tokenize(description), tokensByRequest, requestsByToken);
+    }
+
+    private void putItem(ItemDto item) {
+        remove(item.getId(), tokensByItem, itemsByToken);
+
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), tokenize(item.getName() + " " + item.getDescription()), tokensByItem, itemsByToken);
+        }
+    }
+
+    private void put(long id, Set<String> tokens, Map<Long, Set<String>> tokensById,
+                     Map<String, Set<Long>> idsByToken) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        tokensById.put(id, tokens);
+
+        for (String token : tokens) {
+            idsByToken.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+            documentFrequency.merge(token, 1, Integer::sum);
+        }
+    }
+
+    private void remove(long id, Map<Long, Set<String>> tokensById, Map<String, Set<Long>> idsByToken) {
+        Set<String> tokens = tokensById.remove(id);
+
+        if (tokens == null) {
+            return;
+        }
+
+        for (String token : tokens) {
+            Set<Long> ids = idsByToken.get(token);
+            ids.remove(id);
+
+            if (ids.isEmpty()) {
+                idsByToken.remove(token);
+            }
+
+            documentFrequency.computeIfPresent(token, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private double getWeight(String token) {
+        int documents = tokensByRequest.size() + tokensByItem.size();
+        return Math.log(1 + (double) (documents + 1) / (documentFrequency.getOrDefault(token, 0) + 1));
+    }
+
+    private double getTotalWeight(Set<String> tokens) {
+        return tokens.stream().mapToDouble(this::getWeight).sum();
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+
+        for (String word : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+
+            int stemLength = Math.max(MIN_STEM_LENGTH, word.length() - MAX_ENDING_LENGTH);
+            tokens.add(word.substring(0, Math.min(word.length(), stemLength)));
+        }
+
+        return tokens;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+import ru.practicum.shareit.request.model.RequestMatch;
+
+import java.util.List;
+
+public interface RequestMatchStorage extends JpaRepository<RequestMatch, Long> {
+    @Query("select new ru.practicum.shareit.request.dto.RequestMatchDto(m.id, r.id, r.description, i.id, i.name, " +
+            "i.description, m.score, m.created) from RequestMatch m join m.request r join m.item i " +
+            "where m.requestor.id = :userId and i.available = true order by m.id desc")
+    List<RequestMatchDto> findByRequestorId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.RequestMatchDto(m.id, r.id, r.description, i.id, i.name, " +
+            "i.description, m.score, m.created) from RequestMatch m join m.request r join m.item i " +
+            "where m.owner.id = :userId and i.available = true order by m.id desc")
+    List<RequestMatchDto> findByOwnerId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from RequestMatch m where m.request.id = :requestId")
+    int deleteByRequestId(@Param("requestId") Long requestId);
+}
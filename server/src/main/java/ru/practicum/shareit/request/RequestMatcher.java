@@ -0,0 +1,118 @@
+package ru.practicum.shareit.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemSavedEvent;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestMatch;
+import ru.practicum.shareit.user.UserStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Подбирает по индексу слов открытые запросы к новой вещи и доступные вещи к новому запросу
+ * и сохраняет лучшие совпадения, чтобы пользователи читали их готовыми, а не просматривали ленты запросов.
+ * Совпадения сохраняются в транзакции, создавшей вещь или запрос; совпадения запроса, на который ответили вещью,
+ * удаляются.
+ */
+@Component
+@Slf4j
+public class RequestMatcher {
+    private final RequestMatchIndex matchIndex;
+    private final RequestMatchStorage matchStorage;
+    private final ItemRequestStorage itemRequestStorage;
+    private final ItemStorage itemStorage;
+    private final UserStorage userStorage;
+    private final double minScore;
+    private final int maxMatches;
+
+    public RequestMatcher(RequestMatchIndex matchIndex, RequestMatchStorage matchStorage,
+                          ItemRequestStorage itemRequestStorage, ItemStorage itemStorage, UserStorage userStorage,
+                          @Value("${shareit.request.matching.min-score}") double minScore,
+                          @Value("${shareit.request.matching.max-matches}") int maxMatches) {
+        this.matchIndex = matchIndex;
+        this.matchStorage = matchStorage;
+        this.itemRequestStorage = itemRequestStorage;
+        this.itemStorage = itemStorage;
+        this.userStorage = userStorage;
+        this.minScore = minScore;
+        this.maxMatches = maxMatches;
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        if (!event.isCreated()) {
+            return;
+        }
+
+        ItemDto item = event.getItem();
+
+        if (item.getRequestId() != null) {
+            int deleted = matchStorage.deleteByRequestId(item.getRequestId());
+            log.info("На запрос с id = {} ответили вещью, удалено подобранных к нему вещей: {}", item.getRequestId(),
+                    deleted);
+        }
+
+        if (!matchIndex.isReady() || !Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        User owner = userStorage.getReferenceById(event.getOwnerId());
+
+        Map<Long, Double> requestScores = matchIndex.scoreRequests(item);
+        requestScores.remove(item.getRequestId());
+        Map<Long, Double> scores = getBestScores(requestScores);
+        Item itemRef = itemStorage.getReferenceById(item.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        List<RequestMatch> matches = itemRequestStorage.findAllById(scores.keySet()).stream()
+                .filter(request -> !request.getRequestor().getId().equals(owner.getId()))
+                .map(request -> new RequestMatch(request, itemRef, request.getRequestor(), owner,
+                        scores.get(request.getId()), now))
+                .collect(Collectors.toList());
+
+        matchStorage.saveAll(matches);
+        log.info("Вещь с id = {} подобрана к {} запросам", item.getId(), matches.size());
+    }
+
+    @EventListener
+    public void onRequestCreated(ItemRequestCreatedEvent event) {
+        if (!matchIndex.isReady()) {
+            return;
+        }
+
+        ItemRequestDto createdRequest = event.getRequest();
+        ItemRequest request = itemRequestStorage.getReferenceById(createdRequest.getId());
+        User requestor = userStorage.getReferenceById(event.getRequestorId());
+
+        Map<Long, Double> scores = getBestScores(matchIndex.scoreItems(createdRequest.getDescription()));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<RequestMatch> matches = itemStorage.findAllById(scores.keySet()).stream()
+                .filter(item -> item.isAvailable() && !item.getUser().getId().equals(requestor.getId()))
+                .map(item -> new RequestMatch(request, item, requestor, item.getUser(),
+                        scores.get(item.getId()), now))
+                .collect(Collectors.toList());
+
+        matchStorage.saveAll(matches);
+        log.info("К запросу с id = {} подобрано {} вещей", createdRequest.getId(), matches.size());
+    }
+
+    private Map<Long, Double> getBestScores(Map<Long, Double> scores) {
+        return scores.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minScore)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(maxMatches)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
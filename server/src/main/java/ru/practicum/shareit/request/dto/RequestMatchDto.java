@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestMatchDto {
+    private Long id;
+    private Long requestId;
+    private String requestDescription;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private double score;
+    private LocalDateTime created;
+}
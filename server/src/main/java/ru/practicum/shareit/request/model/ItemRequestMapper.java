@@ -1,8 +1,7 @@
 package ru.practicum.shareit.request.model;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.CreateItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
@@ -30,12 +29,12 @@ public class ItemRequestMapper {
         );
     }
 
-    public static ItemRequestWithAnswersDto toItemRequestWithAnswersDto(ItemRequest itemRequest, List<Item> items) {
+    public static ItemRequestWithAnswersDto toItemRequestWithAnswersDto(ItemRequest itemRequest, List<ItemDto> items) {
         return new ItemRequestWithAnswersDto(
                 itemRequest.getId(),
                 itemRequest.getDescription(),
                 itemRequest.getCreated(),
-                ItemMapper.toItemDto(items)
+                items
         );
     }
 }
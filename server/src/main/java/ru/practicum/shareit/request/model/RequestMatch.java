@@ -0,0 +1,64 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "request_matches")
+public class RequestMatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id")
+    @ToString.Exclude
+    private ItemRequest request;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    private Item item;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id")
+    @ToString.Exclude
+    private User requestor;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id")
+    @ToString.Exclude
+    private User owner;
+    private double score;
+    private LocalDateTime created;
+
+    public RequestMatch(ItemRequest request, Item item, User requestor, User owner, double score,
+                        LocalDateTime created) {
+        this.request = request;
+        this.item = item;
+        this.requestor = requestor;
+        this.owner = owner;
+        this.score = score;
+        this.created = created;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        RequestMatch match = (RequestMatch) o;
+        return getId() != null && Objects.equals(getId(), match.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -3,9 +3,9 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -38,7 +38,7 @@ public class UserServiceImpl implements UserService {
         Pageable page = PageRequest.of(START_PAGE, PAGE_SIZE, sortById);
 
         do {
-            Page<User> userPage = userStorage.findAll(page);
+            Slice<User> userPage = userStorage.findAllBy(page);
             userPage.getContent().forEach(user -> allUsers.add(UserMapper.toUserDto(user)));
             if (userPage.hasNext()) {
                 page = PageRequest.of(userPage.getNumber() + 1, userPage.getSize(), userPage.getSort());
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.user.model.User;
 
 public interface UserStorage extends JpaRepository<User, Long> {
     boolean existsByEmailAndIdNot(String email, Long id);
 
+    Slice<User> findAllBy(Pageable pageable);
+
 }
@@ -32,7 +32,19 @@ public class Constants {
     public static final String USER_CANNOT_LEAVE_COMMENT_TWICE_MESSAGE = "Нельзя оставить больше одного отзыва на вещь";
     public static final String TIME_NOT_AVAILABLE_FOR_BOOKING_MESSAGE = "Нельзя забронировать вещь с %s по %s, так как " +
             "она уже забронирована на это время";
+    public static final String APPROVED_BOOKINGS_CROSSING_MESSAGE = "Нельзя подтвердить бронирование с идентификатором " +
+            "%d, так как вещь уже забронирована на это время";
+    public static final String BOOKING_STATUSES_CHANGED_CONCURRENTLY_MESSAGE = "Статусы бронирований были изменены " +
+            "одновременно с этим запросом, повторите его";
+    public static final String EMPTY_BOOKINGS_BATCH_MESSAGE = "Список бронирований не должен быть пустым";
+    public static final int AVAILABILITY_CHUNK_SIZE = 500;
+    public static final String WRONG_AVAILABILITY_WINDOW_MESSAGE = "Начало интервала должно быть раньше его конца";
+    public static final String INCOMPLETE_SEARCH_WINDOW_MESSAGE = "Параметры start и end должны передаваться вместе";
+    public static final String INCOMPLETE_BOOKING_CURSOR_MESSAGE = "Параметры курсора afterStart и afterId должны " +
+            "передаваться вместе";
     public static final String HEADER_WITH_USER_ID_NAME = "X-Sharer-User-Id";
     public static final String DEFAULT_PAGE_SIZE = "20";
     public static final String DEFAULT_START_PAGE = "0";
+    public static final String DEFAULT_SUGGESTIONS_SIZE = "10";
+    public static final String LAST_EVENT_ID_HEADER_NAME = "Last-Event-ID";
 }
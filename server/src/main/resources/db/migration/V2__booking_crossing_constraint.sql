@@ -0,0 +1,11 @@
+create extension if not exists btree_gist;
+
+do $$
+begin
+  if not exists (select 1 from pg_constraint where conname = 'ex_booking_approved_crossing') then
+    alter table bookings add constraint ex_booking_approved_crossing
+      exclude using gist (item_id with =, tsrange(start_date, end_date) with &&) where (status = 'APPROVED');
+  end if;
+end $$;
+
+create index if not exists ix_bookings_item_status_dates on bookings (item_id, status, start_date, end_date);
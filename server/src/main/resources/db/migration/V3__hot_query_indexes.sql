@@ -0,0 +1,42 @@
+-- индексы строятся concurrently, не блокируя запись в таблицы, поэтому Flyway выполняет миграцию вне транзакции
+
+-- прерванное построение concurrently оставляет невалидный индекс, который create index if not exists пропустил бы;
+-- после flyway repair повторный запуск миграции удаляет такие индексы и строит их заново; обычное удаление
+-- невалидного индекса берет исключительную блокировку таблицы лишь на время удаления
+do $$
+declare
+  invalid_index text;
+begin
+  for invalid_index in
+    select c.relname from pg_index i join pg_class c on c.oid = i.indexrelid
+    where not i.indisvalid and c.relname in (
+      'ix_bookings_booker_start',
+      'ix_bookings_booker_status_start',
+      'ix_bookings_item_start',
+      'ix_items_user',
+      'ix_items_request',
+      'ix_comments_item',
+      'ix_comments_item_author',
+      'ix_requests_user_created',
+      'ix_requests_created')
+  loop
+    execute format('drop index %I', invalid_index);
+  end loop;
+end $$;
+
+create index concurrently if not exists ix_bookings_booker_start on bookings (user_id, start_date, id);
+create index concurrently if not exists ix_bookings_booker_status_start on bookings (user_id, status, start_date, id);
+
+-- ix_bookings_item_status_dates из V2 упорядочивает бронирования вещи по дате начала только внутри одного статуса;
+-- списки владельца без фильтра по статусу и их продолжение с курсора читают бронирования каждой вещи
+-- по порядку (start_date, id) без сортировки всех бронирований владельца
+create index concurrently if not exists ix_bookings_item_start on bookings (item_id, start_date, id);
+
+create index concurrently if not exists ix_items_user on items (user_id, id);
+create index concurrently if not exists ix_items_request on items (request_id) where request_id is not null;
+
+create index concurrently if not exists ix_comments_item on comments (item_id, id);
+create index concurrently if not exists ix_comments_item_author on comments (item_id, user_id);
+
+create index concurrently if not exists ix_requests_user_created on requests (user_id, created);
+create index concurrently if not exists ix_requests_created on requests (created);
@@ -0,0 +1,17 @@
+-- прерванное построение concurrently оставляет невалидный индекс, который create index if not exists пропустил бы;
+-- после flyway repair повторный запуск миграции удаляет такие индексы и строит их заново; обычное удаление
+-- невалидного индекса берет исключительную блокировку таблицы лишь на время удаления
+do $$
+declare
+  invalid_index text;
+begin
+  for invalid_index in
+    select c.relname from pg_index i join pg_class c on c.oid = i.indexrelid
+    where not i.indisvalid and c.relname in (
+      'ix_bookings_waiting_start')
+  loop
+    execute format('drop index %I', invalid_index);
+  end loop;
+end $$;
+
+create index concurrently if not exists ix_bookings_waiting_start on bookings (start_date, id) where status = 'WAITING';
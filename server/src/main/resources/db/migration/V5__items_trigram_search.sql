@@ -0,0 +1,4 @@
+create extension if not exists pg_trgm;
+
+create index if not exists ix_items_name_trgm on items using gin (name gin_trgm_ops) where available;
+create index if not exists ix_items_description_trgm on items using gin (description gin_trgm_ops) where available;
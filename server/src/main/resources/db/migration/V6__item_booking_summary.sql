@@ -0,0 +1,19 @@
+create table if not exists item_booking_summary (
+  item_id BIGINT PRIMARY KEY,
+  last_booking_id BIGINT,
+  next_booking_id BIGINT,
+  version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT fk_summary_item FOREIGN KEY(item_id) REFERENCES items(id),
+  CONSTRAINT fk_summary_last_booking FOREIGN KEY(last_booking_id) REFERENCES bookings(id),
+  CONSTRAINT fk_summary_next_booking FOREIGN KEY(next_booking_id) REFERENCES bookings(id)
+);
+
+insert into item_booking_summary (item_id, last_booking_id, next_booking_id)
+select i.id,
+  (select b.id from bookings b where b.item_id = i.id and b.status = 'APPROVED' and b.start_date <= localtimestamp
+    order by b.start_date desc limit 1),
+  (select b.id from bookings b where b.item_id = i.id and b.status = 'APPROVED' and b.start_date > localtimestamp
+    order by b.start_date limit 1)
+from items i
+where exists (select 1 from bookings b where b.item_id = i.id and b.status = 'APPROVED')
+on conflict (item_id) do nothing;
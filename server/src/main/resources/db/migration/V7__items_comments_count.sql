@@ -0,0 +1,4 @@
+alter table items add column if not exists comments_count BIGINT NOT NULL DEFAULT 0;
+
+update items i set comments_count = (select count(*) from comments c where c.item_id = i.id)
+where exists (select 1 from comments c where c.item_id = i.id);
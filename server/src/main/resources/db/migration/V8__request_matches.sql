@@ -0,0 +1,17 @@
+create table if not exists request_matches (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  request_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  requestor_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  score DOUBLE PRECISION NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT fk_match_request FOREIGN KEY(request_id) REFERENCES requests(id),
+  CONSTRAINT fk_match_item FOREIGN KEY(item_id) REFERENCES items(id),
+  CONSTRAINT fk_match_requestor FOREIGN KEY(requestor_id) REFERENCES users(id),
+  CONSTRAINT fk_match_owner FOREIGN KEY(owner_id) REFERENCES users(id),
+  CONSTRAINT uq_match_request_item UNIQUE (request_id, item_id)
+);
+
+create index if not exists ix_request_matches_requestor on request_matches (requestor_id, id);
+create index if not exists ix_request_matches_owner on request_matches (owner_id, id);
@@ -0,0 +1,11 @@
+-- дата начала следующего бронирования хранится в сводке, чтобы планировщик находил устаревшие сводки по индексу,
+-- а чтение списка вещей владельца не пересчитывало и не записывало их
+alter table item_booking_summary add column if not exists next_start TIMESTAMP WITHOUT TIME ZONE;
+
+update item_booking_summary s
+set next_start = b.start_date
+from bookings b
+where b.id = s.next_booking_id;
+
+create index if not exists ix_item_booking_summary_next_start on item_booking_summary (next_start)
+  where next_start is not null;
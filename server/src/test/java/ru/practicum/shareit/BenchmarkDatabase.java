@@ -0,0 +1,47 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Контекст приложения без веб-сервера для бенчмарков, которые работают с PostgreSQL. База задается переменными
+ * окружения BENCHMARK_DATASOURCE_URL, BENCHMARK_DATASOURCE_USERNAME и BENCHMARK_DATASOURCE_PASSWORD, а без них
+ * поднимается в Testcontainers из того же образа, что и в интеграционных тестах. Схема создается миграциями,
+ * планировщики и подробное логирование транзакций отключены, чтобы не искажать замеры.
+ */
+public final class BenchmarkDatabase {
+    private static final String URL_VARIABLE = "BENCHMARK_DATASOURCE_URL";
+
+    private BenchmarkDatabase() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        String url = System.getenv(URL_VARIABLE);
+        String username = System.getenv("BENCHMARK_DATASOURCE_USERNAME");
+        String password = System.getenv("BENCHMARK_DATASOURCE_PASSWORD");
+
+        if (url == null) {
+            PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13.7-alpine");
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            username = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        // аргументы командной строки переопределяют application.properties, в отличие от properties() построителя
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.hikari.maximum-pool-size=16",
+                        "--shareit.booking.availability-index.check-delay=PT1H",
+                        "--shareit.booking.expiry.delay=PT1H",
+                        "--shareit.booking.summary.refresh-delay=PT1H",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+    }
+}
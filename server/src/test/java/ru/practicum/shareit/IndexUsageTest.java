@@ -0,0 +1,233 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.booking.dto.SearchingState;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.CommentStorage;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequestStorage;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по EXPLAIN, что горячие запросы репозиториев читают таблицы через индексы из миграций.
+ * План строится для того SQL, который сгенерировал Hibernate, в общем виде (force_generic_plan), то есть
+ * не зависит от значений параметров; только для поиска по триграммам план строится для конкретной строки. Чтобы выбор планировщика был таким же, как на рабочей базе, таблицы
+ * заполняются данными с похожим распределением и собирается статистика. После тестов эти данные удаляются,
+ * чтобы старые неподтвержденные бронирования не попали в выборки планировщиков в других тестах.
+ */
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.StatementCapture")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexUsageTest extends PostgresIntegrationTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private CommentStorage commentStorage;
+    @Autowired
+    private ItemRequestStorage itemRequestStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeAll
+    void createData() {
+        // 10000 пользователей, по вещи и запросу на каждого пятого, половина вещей отвечает на запросы;
+        // у каждой из этих вещей 25 непересекающихся бронирований в разных статусах и 5 отзывов
+        prefix = unique("index-user-");
+        String users = "with u as (select row_number() over (order by id) - 1 as n, id from users " +
+                "where email like '" + prefix + "%') ";
+        jdbcTemplate.update("insert into users (name, email) select 'user ' || g, ? || g || '@mail.ru' " +
+                "from generate_series(0, 9999) g", prefix);
+        jdbcTemplate.update(users + "insert into requests (description, user_id, created) " +
+                "select 'request ' || g, u.id, now() - g * interval '1 minute' " +
+                "from generate_series(0, 1999) g join u on u.n = g * 5");
+        jdbcTemplate.update(users + "insert into items (name, description, available, user_id, request_id) " +
+                "select 'item ' || g, 'description ' || g, true, u.id, " +
+                "case when g % 2 = 0 then (select max(id) from requests) - g end " +
+                "from generate_series(0, 1999) g join u on u.n = g * 5");
+        jdbcTemplate.update(users + "insert into bookings (status, item_id, user_id, start_date, end_date) " +
+                "select (array['WAITING', 'APPROVED', 'REJECTED', 'CANCELED'])[(i.id + j) % 4 + 1], i.id, u.id, " +
+                "timestamp '2020-01-01' + j * interval '2 days', timestamp '2020-01-02' + j * interval '2 days' " +
+                "from items i cross join generate_series(0, 24) j join u on u.n = (i.id * 25 + j) % 10000");
+        jdbcTemplate.update(users + "insert into comments (text, item_id, user_id, created) " +
+                "select 'comment', i.id, u.id, now() " +
+                "from items i cross join generate_series(0, 4) j join u on u.n = (i.id * 5 + j) % 10000");
+        // еще 100000 вещей со словарными названиями и описаниями для поиска по триграммам
+        jdbcTemplate.update(users + "insert into items (name, description, available, user_id) " +
+                "select (array['Дрель', 'Перфоратор', 'Лобзик', 'Палатка', 'Гитара', 'Пылесос'])[g % 6 + 1] || ' ' || " +
+                "(array['Bosch', 'Makita', 'Metabo', 'Ryobi', 'Yamaha'])[g % 5 + 1] || ' ' || g % 10000, " +
+                "(array['аккумуляторный', 'сетевой', 'почти', 'новый', 'мощный', 'тихий'])[g % 6 + 1] || ' ' || " +
+                "(array['в', 'комплекте', 'кейс', 'зарядка', 'для', 'дачи', 'ремонта'])[g % 7 + 1] || ' ' || " +
+                "(array['складной', 'походный', 'легкий', 'без', 'царапин'])[g % 5 + 1], " +
+                "g % 10 <> 0, u.id from generate_series(0, 99999) g join u on u.n = g % 10000");
+        // vacuum переносит вставленные строки из списка ожидания GIN в сам индекс, как это сделал бы автовакуум
+        jdbcTemplate.execute("vacuum analyze");
+    }
+
+    @AfterAll
+    void deleteData() {
+        String users = "select id from users where email like ?";
+        String pattern = prefix + "%";
+        jdbcTemplate.update("delete from comments where user_id in (" + users + ")", pattern);
+        jdbcTemplate.update("delete from bookings where user_id in (" + users + ")", pattern);
+        jdbcTemplate.update("delete from items where user_id in (" + users + ")", pattern);
+        jdbcTemplate.update("delete from requests where user_id in (" + users + ")", pattern);
+        jdbcTemplate.update("delete from users where email like ?", pattern);
+    }
+
+    @Test
+    void bookerBookingsUseBookerIndexes() {
+        assertIndexes(() -> bookingStorage.findByBooker_Id(1L, PAGE), "ix_bookings_booker_start");
+        assertIndexes(() -> bookingStorage.findByBooker_IdAndEndBefore(1L, TIME, PAGE), "ix_bookings_booker_start");
+        assertIndexes(() -> bookingStorage.findByBooker_IdAndStartAfter(1L, TIME, PAGE), "ix_bookings_booker_start");
+        assertIndexes(() -> bookingStorage.findByBooker_IdAndStatus(1L, Status.WAITING, PAGE),
+                "ix_bookings_booker_status_start");
+        assertIndexes(() -> bookingStorage.findByBookerIdAfter(1L, SearchingState.ALL, TIME, TIME, 1L, 10),
+                "ix_bookings_booker_start");
+    }
+
+    @Test
+    void ownerBookingsUseItemIndexes() {
+        assertIndexes(() -> bookingStorage.findByItem_User_Id(1L, PAGE), "ix_items_user", "ix_bookings_item_start");
+        assertIndexes(() -> bookingStorage.findByItem_User_IdAndStatus(1L, Status.WAITING, PAGE),
+                "ix_items_user", "ix_bookings_item_status_dates");
+        assertIndexes(() -> bookingStorage.findByOwnerIdAfter(1L, SearchingState.ALL, TIME, TIME, 1L, 10),
+                "ix_items_user", "ix_bookings_item_start");
+    }
+
+    @Test
+    void itemBookingLookupsUseItemIndexes() {
+        assertIndexes(() -> bookingStorage.findLastAndNextIntervals(List.of(1L), Status.APPROVED, TIME),
+                "ix_bookings_item_status_dates");
+        // у автора бронирований меньше, чем у вещи, поэтому проверка перед отзывом идет по индексу автора
+        assertIndexes(() -> bookingStorage.existsByItem_IdAndBooker_IdAndStatusAndEndBefore(1L, 1L, Status.APPROVED,
+                TIME), "ix_bookings_booker_status_start");
+        assertIndexes(() -> bookingStorage.findIntervalsInItemWindow(1L, Set.of(Status.APPROVED, Status.WAITING),
+                TIME, TIME, PageRequest.of(0, 10)), "ix_bookings_item_status_dates");
+    }
+
+    @Test
+    void itemQueriesUseItemIndexes() {
+        assertIndexes(() -> itemStorage.findByUser_Id(1L, PageRequest.of(0, 10, Sort.by("id"))), "ix_items_user");
+        assertIndexes(() -> itemStorage.findByItemRequest_IdIn(List.of(1L, 2L)), "ix_items_request");
+    }
+
+    @Test
+    void trigramSearchUsesTrigramIndexes() {
+        // общий план с неизвестным шаблоном дороже частного, поэтому PostgreSQL выполняет поиск частными планами
+        assertIndexes(() -> itemStorage.searchAvailableByTrigrams("makita 4821", "%makita 4821%",
+                PageRequest.of(0, 10)), List.of("%makita 4821%", "%makita 4821%", "makita 4821", "makita 4821", "11"),
+                "ix_items_name_trgm", "ix_items_description_trgm");
+    }
+
+    @Test
+    void commentQueriesUseCommentIndexes() {
+        assertIndexes(() -> commentStorage.findViewsByItemId(1L, PageRequest.of(0, 10)), "ix_comments_item");
+        assertIndexes(() -> commentStorage.findLatestViewsByItemIdIn(List.of(1L, 2L), 10),
+                "ix_comments_item");
+        assertIndexes(() -> commentStorage.existsByItem_IdAndAuthor_Id(1L, 1L), "ix_comments_item_author");
+    }
+
+    @Test
+    void requestQueriesUseRequestIndexes() {
+        assertIndexes(() -> itemRequestStorage.findByRequestor_IdOrderByCreatedDesc(1L), "ix_requests_user_created");
+        assertIndexes(() -> itemRequestStorage.findByRequestor_IdNot(1L,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created"))), "ix_requests_created");
+    }
+
+    private void assertIndexes(Runnable query, String... indexes) {
+        assertIndexes(query, null, indexes);
+    }
+
+    /**
+     * Если заданы значения параметров, план строится для них (force_custom_plan), иначе в общем виде.
+     */
+    private void assertIndexes(Runnable query, List<String> values, String... indexes) {
+        List<String> statements = StatementCapture.capture(query);
+        assertThat(statements).hasSize(1);
+
+        String plan = explain(statements.get(0), values);
+        assertThat(plan).as(plan).doesNotContain("Seq Scan");
+
+        for (String index : indexes) {
+            assertThat(plan).as(plan).contains(" " + index + " ");
+        }
+    }
+
+    private String explain(String sql, List<String> values) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set plan_cache_mode = " + (values == null ? "force_generic_plan" : "force_custom_plan"));
+                statement.execute("prepare explained as " + numberParameters(sql));
+
+                try (ResultSet plan = statement.executeQuery("explain execute explained(" +
+                        (values == null ? parameterNulls(sql) : parameterLiterals(values)) + ")")) {
+                    List<String> lines = new ArrayList<>();
+
+                    while (plan.next()) {
+                        lines.add(plan.getString(1));
+                    }
+
+                    return String.join("\n", lines);
+                } finally {
+                    statement.execute("deallocate explained");
+                    statement.execute("reset all");
+                }
+            }
+        });
+    }
+
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        return numbered.toString();
+    }
+
+    private static String parameterLiterals(List<String> values) {
+        return values.stream()
+                .map(value -> "'" + value.replace("'", "''") + "'")
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String parameterNulls(String sql) {
+        long parameters = sql.chars().filter(c -> c == '?').count();
+        return IntStream.range(0, (int) parameters)
+                .mapToObj(i -> "null")
+                .collect(Collectors.joining(", "));
+    }
+}
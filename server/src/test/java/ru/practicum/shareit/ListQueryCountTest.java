@@ -0,0 +1,85 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Списочные эндпоинты отдают страницу без запроса count(*): данных больше размера страницы, поэтому Page
+ * посчитал бы общее количество отдельным запросом.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListQueryCountTest extends PostgresIntegrationTest {
+    private static final int PAGE_SIZE = 10;
+    private static final int ROWS = PAGE_SIZE * 3;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    private long ownerId;
+    private long bookerId;
+
+    @BeforeAll
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < ROWS; i++) {
+            book(createItem(ownerId), bookerId, start.plusDays(i));
+            itemRequestService.createItemRequest(bookerId, new CreateItemRequestDto(unique("Нужна дрель")));
+        }
+    }
+
+    @Test
+    void getBookingsByBookerIdRunsNoCountQuery() {
+        StatementCount count = countStatements(() ->
+                bookingService.getBookingsByBookerId(bookerId, "ALL", 0, PAGE_SIZE, null, null));
+
+        // проверка пользователя и страница бронирований
+        assertThat(count.getStatements()).isEqualTo(2);
+        assertNoCountQuery(count, "Booking");
+    }
+
+    @Test
+    void getBookingsByOwnerIdRunsNoCountQuery() {
+        StatementCount count = countStatements(() ->
+                bookingService.getBookingsByOwnerId(ownerId, "ALL", 0, PAGE_SIZE, null, null));
+
+        assertThat(count.getStatements()).isEqualTo(2);
+        assertNoCountQuery(count, "Booking");
+    }
+
+    @Test
+    void getUsersItemsRunsNoCountQuery() {
+        StatementCount count = countStatements(() -> itemService.getUsersItems(ownerId, 0, PAGE_SIZE));
+
+        // страница вещей, последние отзывы и ближайшие бронирования
+        assertThat(count.getStatements()).isEqualTo(3);
+        assertNoCountQuery(count, "Item");
+    }
+
+    @Test
+    void getRequestsRunsNoCountQuery() {
+        StatementCount count = countStatements(() -> itemRequestService.getRequests(ownerId, 0, PAGE_SIZE));
+
+        // проверка пользователя, страница запросов и ответы на них
+        assertThat(count.getStatements()).isEqualTo(3);
+        assertNoCountQuery(count, "ItemRequest");
+    }
+
+    private static void assertNoCountQuery(StatementCount count, String entity) {
+        // имя сущности сравнивается целиком, чтобы Item не совпадало с ItemRequest
+        Pattern fromEntity = Pattern.compile("\\bfrom\\s+(?:\\w+\\.)*" + Pattern.quote(entity) + "\\b");
+        assertThat(count.getQueries())
+                .noneMatch(query -> query.contains("count(") && fromEntity.matcher(query).find());
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Интеграционные тесты на PostgreSQL той же версии, что и в docker-compose: схема создается миграциями Flyway,
+ * которые используют расширения btree_gist и pg_trgm. Контейнер один на все тесты, чтобы контекст Spring
+ * переиспользовался между классами. Без Docker тесты пропускаются.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13.7-alpine");
+    private static final AtomicLong UNIQUE_SUFFIX = new AtomicLong();
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    protected UserService userService;
+    @Autowired
+    protected ItemService itemService;
+    @Autowired
+    protected BookingService bookingService;
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    protected static String unique(String value) {
+        return value + UNIQUE_SUFFIX.incrementAndGet();
+    }
+
+    protected long createUser() {
+        String name = unique("user");
+        return userService.createUser(new UserDto(0, name, name + "@mail.ru")).getId();
+    }
+
+    protected long createItem(long ownerId) {
+        return createItem(ownerId, null);
+    }
+
+    protected long createItem(long ownerId, Long requestId) {
+        return itemService.createItem(ownerId, new ItemDto(0, unique("Дрель"), "Аккумуляторная дрель", true,
+                requestId)).getId();
+    }
+
+    protected long book(long itemId, long bookerId, LocalDateTime start) {
+        return book(itemId, bookerId, start, start.plusHours(1));
+    }
+
+    protected long book(long itemId, long bookerId, LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(new BookingCreationDto(itemId, start, end), bookerId).getId();
+    }
+
+    protected StatementCount countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        Map<String, Long> entityLoads = Arrays.stream(statistics.getEntityNames())
+                .collect(Collectors.toMap(Function.identity(),
+                        name -> statistics.getEntityStatistics(name).getLoadCount()));
+        return new StatementCount(statistics.getPrepareStatementCount(), List.of(statistics.getQueries()),
+                entityLoads);
+    }
+
+    protected static class StatementCount {
+        private final long statements;
+        private final List<String> queries;
+        private final Map<String, Long> entityLoads;
+
+        StatementCount(long statements, List<String> queries, Map<String, Long> entityLoads) {
+            this.statements = statements;
+            this.queries = queries;
+            this.entityLoads = entityLoads;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public List<String> getQueries() {
+            return queries;
+        }
+
+        public long getEntityLoads(Class<?> entity) {
+            return entityLoads.getOrDefault(entity.getName(), 0L);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Списки бронирований, отзывы и ответы на запросы читаются проекциями: сущности Booking, User, Item и Comment
+ * не создаются и не попадают в контекст персистентности, сколько бы строк ни вернулось.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProjectionEntityLoadTest extends PostgresIntegrationTest {
+    private static final int ROWS = 20;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private long requestorId;
+    private long commentedItemId;
+
+    @BeforeAll
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        requestorId = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < ROWS; i++) {
+            long requestId = itemRequestService.createItemRequest(requestorId,
+                    new CreateItemRequestDto(unique("Нужна дрель"))).getId();
+            bookApproved(createItem(ownerId, requestId), bookerId, start.plusDays(i));
+        }
+
+        // отзыв можно оставить только после завершенного бронирования, и только один от каждого автора
+        commentedItemId = itemService.createItem(ownerId, new ItemDto(0, unique("Перфоратор"), "Перфоратор",
+                true, null)).getId();
+        List<Long> authorIds = new ArrayList<>();
+
+        for (int i = 0; i < ROWS; i++) {
+            authorIds.add(createUser());
+            bookApproved(commentedItemId, authorIds.get(i), start.plusDays(i));
+        }
+
+        jdbcTemplate.update("update bookings set start_date = start_date - interval '200 days', " +
+                "end_date = end_date - interval '200 days' where item_id = ?", commentedItemId);
+
+        for (long authorId : authorIds) {
+            itemService.createComment(new CommentDto(null, unique("Отличный перфоратор"), null, null), authorId,
+                    commentedItemId);
+        }
+    }
+
+    @Test
+    void bookingListsLoadNoEntities() {
+        StatementCount byBooker = countStatements(() ->
+                assertThat(bookingService.getBookingsByBookerId(bookerId, "ALL", 0, ROWS, null, null)).hasSize(ROWS));
+        StatementCount byOwner = countStatements(() ->
+                assertThat(bookingService.getBookingsByOwnerId(ownerId, "ALL", 0, ROWS, null, null)).hasSize(ROWS));
+
+        for (StatementCount count : new StatementCount[]{byBooker, byOwner}) {
+            assertThat(count.getEntityLoads(Booking.class)).isZero();
+            assertThat(count.getEntityLoads(Item.class)).isZero();
+            assertThat(count.getEntityLoads(User.class)).isZero();
+        }
+    }
+
+    @Test
+    void commentsLoadNoEntities() {
+        StatementCount count = countStatements(() ->
+                assertThat(itemService.getComments(commentedItemId, ownerId, 0, ROWS)).hasSize(ROWS));
+
+        assertThat(count.getEntityLoads(Comment.class)).isZero();
+        assertThat(count.getEntityLoads(User.class)).isZero();
+    }
+
+    @Test
+    void requestAnswersLoadNoItems() {
+        StatementCount count = countStatements(() ->
+                assertThat(itemRequestService.getUserRequests(requestorId)).hasSize(ROWS)
+                        .allSatisfy(request -> assertThat(request.getItems()).hasSize(1)));
+
+        // сами запросы по-прежнему читаются сущностями, что заодно показывает работу счетчика загрузок
+        assertThat(count.getEntityLoads(ItemRequest.class)).isEqualTo(ROWS);
+        assertThat(count.getEntityLoads(Item.class)).isZero();
+    }
+
+    private void bookApproved(long itemId, long bookerId, LocalDateTime start) {
+        bookingService.setBookingStatus(ownerId, book(itemId, bookerId, start), true);
+    }
+}
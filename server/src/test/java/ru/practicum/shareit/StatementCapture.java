@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запоминает SQL, который Hibernate отправляет в базу данных из текущего потока, пока идет захват.
+ */
+public class StatementCapture implements StatementInspector {
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    public static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+
+        if (statements != null) {
+            statements.add(sql);
+        }
+
+        return sql;
+    }
+}
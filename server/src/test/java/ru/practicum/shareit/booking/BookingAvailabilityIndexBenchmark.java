@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает поиск пересечения и следующего бронирования в BookingAvailabilityIndex с прежним перебором
+ * подтвержденных бронирований вещи. Перебор измеряется по уже загруженному списку, без запроса к базе данных,
+ * который ему предшествовал.
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=BookingAvailabilityIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingAvailabilityIndexBenchmark {
+    private static final int ITEMS = 100;
+    private static final int PROBES = 1024;
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Param({"10", "100", "1000", "10000"})
+    private int bookingsPerItem;
+
+    private BookingAvailabilityIndex index;
+    private List<List<BookingInterval>> bookingsByItem;
+    private long[] probeItems;
+    private LocalDateTime[] probeStarts;
+    private LocalDateTime[] probeEnds;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        index = new BookingAvailabilityIndex(null);
+        bookingsByItem = new ArrayList<>();
+        long bookingId = 0;
+
+        // бронирования длиной в сутки через сутки: примерно половина проб пересекается с одним из них
+        for (long itemId = 0; itemId < ITEMS; itemId++) {
+            List<BookingInterval> bookings = new ArrayList<>();
+
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = BASE.plusDays(2L * i);
+                BookingInterval booking = new BookingInterval(++bookingId, itemId, 1L, start, start.plusDays(1));
+                bookings.add(booking);
+                index.onStatusChanged(new BookingStatusChangedEvent(booking, Status.APPROVED));
+            }
+
+            bookingsByItem.add(bookings);
+        }
+
+        Random random = new Random(42);
+        probeItems = new long[PROBES];
+        probeStarts = new LocalDateTime[PROBES];
+        probeEnds = new LocalDateTime[PROBES];
+
+        for (int i = 0; i < PROBES; i++) {
+            probeItems[i] = random.nextInt(ITEMS);
+            probeStarts[i] = BASE.plusHours(random.nextInt(bookingsPerItem * 48));
+            probeEnds[i] = probeStarts[i].plusHours(12);
+        }
+    }
+
+    @Benchmark
+    public boolean indexHasCrossing() {
+        int i = nextProbe();
+        return index.hasCrossing(probeItems[i], probeStarts[i], probeEnds[i]);
+    }
+
+    @Benchmark
+    public boolean scanHasCrossing() {
+        int i = nextProbe();
+        LocalDateTime start = probeStarts[i];
+        LocalDateTime end = probeEnds[i];
+
+        for (BookingInterval booking : bookingsByItem.get((int) probeItems[i])) {
+            if ((start.isAfter(booking.getStart()) && start.isBefore(booking.getEnd()))
+                    || (start.isBefore(booking.getStart()) && end.isAfter(booking.getStart()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Benchmark
+    public BookingInterval indexFindNext() {
+        int i = nextProbe();
+        return index.findNext(probeItems[i], probeStarts[i]);
+    }
+
+    @Benchmark
+    public BookingInterval scanFindNext() {
+        int i = nextProbe();
+        LocalDateTime time = probeStarts[i];
+
+        for (BookingInterval booking : bookingsByItem.get((int) probeItems[i])) {
+            if (booking.getStart().isAfter(time)) {
+                return booking;
+            }
+        }
+
+        return null;
+    }
+
+    private int nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probe;
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.AlreadyExistException;
+import ru.practicum.shareit.utils.Constants;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Пакетное изменение статусов: ошибочные записи пакета получают ошибку в результате, не мешая остальным,
+ * а расхождение с параллельно измененными статусами откатывает весь пакет.
+ */
+class BookingBatchStatusTest extends PostgresIntegrationTest {
+    @SpyBean
+    private ItemBookingSummaryManager summaryManager;
+    @SpyBean
+    private BookingAvailabilityIndex availabilityIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        itemId = createItem(ownerId);
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void rejectedApprovalDoesNotTouchItemSummary() {
+        long approvedId = book(itemId, bookerId, start);
+        long crossingId = book(itemId, bookerId, start);
+        bookingService.setBookingStatus(ownerId, approvedId, true);
+
+        List<BookingStatusChangeResultDto> results = bookingService.setBookingStatuses(ownerId,
+                List.of(new BookingStatusChangeDto(crossingId, true)));
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.getStatus()).isNull();
+            assertThat(result.getError()).isNotNull();
+        });
+        assertThat(getStatus(crossingId)).isEqualTo(Status.WAITING);
+        verify(summaryManager).onBookingsApproved(Set.of());
+    }
+
+    @Test
+    void mixedBatchApprovesAndRejects() {
+        long otherItemId = createItem(ownerId);
+        long approvedId = book(itemId, bookerId, start);
+        long rejectedId = book(itemId, bookerId, start.plusDays(1));
+        long otherApprovedId = book(otherItemId, bookerId, start);
+
+        List<BookingStatusChangeResultDto> results = bookingService.setBookingStatuses(ownerId, List.of(
+                new BookingStatusChangeDto(approvedId, true),
+                new BookingStatusChangeDto(rejectedId, false),
+                new BookingStatusChangeDto(otherApprovedId, true)));
+
+        assertThat(results).containsExactly(
+                new BookingStatusChangeResultDto(approvedId, Status.APPROVED, null),
+                new BookingStatusChangeResultDto(rejectedId, Status.REJECTED, null),
+                new BookingStatusChangeResultDto(otherApprovedId, Status.APPROVED, null));
+        assertThat(getStatus(approvedId)).isEqualTo(Status.APPROVED);
+        assertThat(getStatus(rejectedId)).isEqualTo(Status.REJECTED);
+        assertThat(getStatus(otherApprovedId)).isEqualTo(Status.APPROVED);
+        verify(summaryManager).onBookingsApproved(Set.of(itemId, otherItemId));
+    }
+
+    @Test
+    void secondOfTwoCrossingApprovalsInBatchIsRefused() {
+        long firstId = book(itemId, bookerId, start);
+        long crossingId = book(itemId, bookerId, start.plusMinutes(30));
+
+        List<BookingStatusChangeResultDto> results = bookingService.setBookingStatuses(ownerId, List.of(
+                new BookingStatusChangeDto(firstId, true),
+                new BookingStatusChangeDto(crossingId, true)));
+
+        assertThat(results).containsExactly(
+                new BookingStatusChangeResultDto(firstId, Status.APPROVED, null),
+                new BookingStatusChangeResultDto(crossingId, null,
+                        String.format(Constants.APPROVED_BOOKINGS_CROSSING_MESSAGE, crossingId)));
+        assertThat(getStatus(firstId)).isEqualTo(Status.APPROVED);
+        assertThat(getStatus(crossingId)).isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void repeatedIdIsAppliedOnce() {
+        long bookingId = book(itemId, bookerId, start);
+
+        List<BookingStatusChangeResultDto> results = bookingService.setBookingStatuses(ownerId, List.of(
+                new BookingStatusChangeDto(bookingId, true),
+                new BookingStatusChangeDto(bookingId, false)));
+
+        assertThat(results).containsExactly(
+                new BookingStatusChangeResultDto(bookingId, Status.APPROVED, null),
+                new BookingStatusChangeResultDto(bookingId, null,
+                        Constants.USER_CANNOT_CHANGE_BOOKING_STATUS_TWICE_MESSAGE));
+        assertThat(getStatus(bookingId)).isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    void foreignBookingInBatchIsRefused() {
+        long otherOwnerId = createUser();
+        long foreignId = book(createItem(otherOwnerId), bookerId, start);
+        long ownId = book(itemId, bookerId, start);
+
+        List<BookingStatusChangeResultDto> results = bookingService.setBookingStatuses(ownerId, List.of(
+                new BookingStatusChangeDto(foreignId, true),
+                new BookingStatusChangeDto(ownId, true)));
+
+        assertThat(results).containsExactly(
+                new BookingStatusChangeResultDto(foreignId, null,
+                        Constants.NOT_OWNER_CANNOT_CHANGE_BOOKING_STATUS_MESSAGE),
+                new BookingStatusChangeResultDto(ownId, Status.APPROVED, null));
+        assertThat(getStatus(foreignId)).isEqualTo(Status.WAITING);
+        assertThat(getStatus(ownId)).isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    void concurrentStatusChangeRollsBackWholeBatch() {
+        long firstId = book(itemId, bookerId, start);
+        long secondId = book(itemId, bookerId, start.plusDays(1));
+        long rejectedId = book(itemId, bookerId, start.plusDays(2));
+        AtomicBoolean canceled = new AtomicBoolean();
+        // проверка пересечений идет после чтения статусов пакета и до их изменения: в этот момент автор
+        // отменяет второе бронирование в своей транзакции
+        doAnswer(invocation -> {
+            if (canceled.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update("update bookings set status = ? where id = ?",
+                        Status.CANCELED.name(), secondId)).get(10, TimeUnit.SECONDS);
+            }
+
+            return invocation.callRealMethod();
+        }).when(availabilityIndex).isReady();
+
+        assertThrows(AlreadyExistException.class, () -> bookingService.setBookingStatuses(ownerId, List.of(
+                new BookingStatusChangeDto(firstId, true),
+                new BookingStatusChangeDto(secondId, true),
+                new BookingStatusChangeDto(rejectedId, false))));
+
+        assertThat(getStatus(firstId)).isEqualTo(Status.WAITING);
+        assertThat(getStatus(secondId)).isEqualTo(Status.CANCELED);
+        assertThat(getStatus(rejectedId)).isEqualTo(Status.WAITING);
+        verify(summaryManager, never()).onBookingsApproved(any());
+    }
+
+    private Status getStatus(long bookingId) {
+        return Status.valueOf(jdbcTemplate.queryForObject("select status from bookings where id = ?", String.class,
+                bookingId));
+    }
+}
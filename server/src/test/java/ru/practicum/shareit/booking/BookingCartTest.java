@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.AlreadyExistException;
+import ru.practicum.shareit.exception.NotAvailableException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Корзина бронирований создается целиком или не создается совсем: одна недоступная вещь или одно пересечение
+ * с подтвержденным бронированием отменяют все бронирования корзины.
+ */
+class BookingCartTest extends PostgresIntegrationTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long bookerId;
+    private long firstItemId;
+    private long secondItemId;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void createData() {
+        long ownerId = createUser();
+        bookerId = createUser();
+        firstItemId = createItem(ownerId);
+        secondItemId = createItem(ownerId);
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @Test
+    void createsAllBookingsOfCart() {
+        List<BookingDto> bookings = bookingService.createBookings(List.of(booking(firstItemId, start),
+                booking(secondItemId, start)), bookerId);
+
+        assertThat(bookings).extracting(booking -> booking.getItem().getId())
+                .containsExactly(firstItemId, secondItemId);
+        assertThat(bookings).allSatisfy(booking -> assertThat(booking.getStatus()).isEqualTo(Status.WAITING));
+        assertThat(getBookedItemIds()).containsExactlyInAnyOrder(firstItemId, secondItemId);
+    }
+
+    @Test
+    void unavailableItemCancelsWholeCart() {
+        jdbcTemplate.update("update items set available = false where id = ?", secondItemId);
+
+        assertThrows(NotAvailableException.class, () -> bookingService.createBookings(List.of(
+                booking(firstItemId, start), booking(secondItemId, start)), bookerId));
+
+        assertThat(getBookedItemIds()).isEmpty();
+    }
+
+    @Test
+    void crossingWithApprovedBookingCancelsWholeCart() {
+        long ownerId = jdbcTemplate.queryForObject("select user_id from items where id = ?", Long.class,
+                secondItemId);
+        long approvedId = book(secondItemId, createUser(), start);
+        bookingService.setBookingStatus(ownerId, approvedId, true);
+
+        assertThrows(AlreadyExistException.class, () -> bookingService.createBookings(List.of(
+                booking(firstItemId, start), booking(secondItemId, start.plusMinutes(30))), bookerId));
+
+        assertThat(getBookedItemIds()).isEmpty();
+    }
+
+    @Test
+    void emptyCartIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> bookingService.createBookings(List.of(), bookerId));
+    }
+
+    private BookingCreationDto booking(long itemId, LocalDateTime start) {
+        return new BookingCreationDto(itemId, start, start.plusHours(1));
+    }
+
+    private List<Long> getBookedItemIds() {
+        return jdbcTemplate.queryForList("select item_id from bookings where user_id = ?", Long.class, bookerId);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.BenchmarkDatabase;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность и доля прерванных транзакций createBooking, когда на одну вещь одновременно приходится
+ * 1, 8 или 64 бронирующих. Общая нагрузка постоянна: в каждом раунде 64 потока одновременно создают по одному
+ * бронированию, распределенному по 64 / bookersPerItem вещам. Счетчики created и aborted показывают число
+ * созданных и прерванных исключением бронирований в секунду.
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=BookingCreationContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingCreationContentionBenchmark {
+    private static final int CONCURRENCY = 64;
+    private static final LocalDateTime BASE = LocalDateTime.of(2040, 1, 1, 0, 0);
+
+    @Param({"1", "8", "64"})
+    private int bookersPerItem;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ExecutorService executor;
+    private long[] bookerIds;
+    private long[] itemIds;
+    private final AtomicLong slot = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        bookingService = context.getBean(BookingService.class);
+        executor = Executors.newFixedThreadPool(CONCURRENCY);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String prefix = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into users (name, email) select 'user ' || g, ? || '-' || g || '@mail.ru' " +
+                "from generate_series(0, ?) g", prefix, CONCURRENCY);
+        List<Long> users = jdbcTemplate.queryForList("select id from users where email like ? order by id",
+                Long.class, prefix + "-%");
+        long ownerId = users.get(CONCURRENCY);
+        bookerIds = users.subList(0, CONCURRENCY).stream().mapToLong(Long::longValue).toArray();
+
+        int items = CONCURRENCY / bookersPerItem;
+        jdbcTemplate.update("insert into items (name, description, available, user_id) " +
+                "select 'Дрель ' || g, 'Аккумуляторная дрель', true, ? from generate_series(1, ?) g", ownerId, items);
+        itemIds = jdbcTemplate.queryForList("select id from items where user_id = ? order by id", Long.class, ownerId)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void createRound(Outcomes outcomes) throws Exception {
+        List<Future<?>> round = new ArrayList<>(CONCURRENCY);
+
+        for (int i = 0; i < CONCURRENCY; i++) {
+            long itemId = itemIds[i / bookersPerItem];
+            long bookerId = bookerIds[i];
+            LocalDateTime start = BASE.plusHours(slot.incrementAndGet() * 2);
+
+            round.add(executor.submit(() -> {
+                try {
+                    bookingService.createBooking(new BookingCreationDto(itemId, start, start.plusHours(1)), bookerId);
+                    outcomes.created.incrementAndGet();
+                } catch (RuntimeException e) {
+                    outcomes.aborted.incrementAndGet();
+                }
+            }));
+        }
+
+        for (Future<?> booking : round) {
+            booking.get();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong aborted = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            created.set(0);
+            aborted.set(0);
+        }
+
+        public long created() {
+            return created.get();
+        }
+
+        public long aborted() {
+            return aborted.get();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.AlreadyExistException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Создание бронирований не блокирует строку вещи: бронирования в ожидании могут пересекаться, поэтому создания
+ * на одну вещь не ждут ни друг друга, ни транзакций, изменивших вещь. Из пересекающихся бронирований подтвердить
+ * можно только одно, это гарантирует ограничение исключения в базе.
+ */
+class BookingCreationContentionTest extends PostgresIntegrationTest {
+    private static final int THREADS = 16;
+    private static final int BOOKINGS_PER_THREAD = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private long hotItemId;
+
+    @BeforeEach
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        hotItemId = createItem(ownerId);
+    }
+
+    @Test
+    void concurrentCreatesForOneItemAllSucceed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<BookingDto>>> results = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread * BOOKINGS_PER_THREAD;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<BookingDto> bookings = new ArrayList<>();
+
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        bookings.add(book(hotItemId, base.plusDays(offset + i)));
+                    }
+
+                    return bookings;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<List<BookingDto>> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).hasSize(BOOKINGS_PER_THREAD);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from bookings where item_id = ?", Long.class,
+                hotItemId)).isEqualTo((long) THREADS * BOOKINGS_PER_THREAD);
+    }
+
+    @Test
+    void openItemUpdateDoesNotDelayCreation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch updated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // чужая транзакция изменила вещь и держит блокировку ее строки
+            Future<?> updateHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("update items set description = 'Ударная дрель' where id = ?", hotItemId);
+                updated.countDown();
+                awaitQuietly(release);
+            }));
+            assertThat(updated.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<BookingDto> booking = executor.submit(() -> book(hotItemId, LocalDateTime.now().plusDays(1)));
+            assertThat(booking.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+
+            release.countDown();
+            updateHolder.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCrossingApprovalsAdmitOnlyOne() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long first = book(hotItemId, start).getId();
+        long second = book(hotItemId, start.plusMinutes(30)).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> approvals = new ArrayList<>();
+
+        try {
+            for (long bookingId : List.of(first, second)) {
+                approvals.add(executor.submit(() -> {
+                    go.await();
+                    return bookingService.setBookingStatus(ownerId, bookingId, true);
+                }));
+            }
+
+            go.countDown();
+            int refused = 0;
+
+            for (Future<?> approval : approvals) {
+                try {
+                    approval.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(AlreadyExistException.class);
+                    refused++;
+                }
+            }
+
+            assertThat(refused).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from bookings where item_id = ? and status = ?",
+                Long.class, hotItemId, Status.APPROVED.name())).isEqualTo(1L);
+    }
+
+    private BookingDto book(long itemId, LocalDateTime start) {
+        return bookingService.createBooking(new BookingCreationDto(itemId, start, start.plusHours(1)), bookerId);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
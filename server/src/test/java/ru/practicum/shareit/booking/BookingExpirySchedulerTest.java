@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.PostgresIntegrationTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Неподтвержденное бронирование отклоняется только после того, как с его начала прошел запас времени
+ * shareit.booking.expiry.grace (в тестах по умолчанию 10 минут). Планировщик обходит всю общую базу тестов, поэтому
+ * тест выполняется в транзакции, которая откатывается: бронирования других тестов, отклоненные заодно с бронированиями
+ * этого теста, после него остаются в прежнем статусе.
+ */
+class BookingExpirySchedulerTest extends PostgresIntegrationTest {
+    @Autowired
+    private BookingExpiryScheduler scheduler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @Transactional
+    void rejectsWaitingBookingsOnlyAfterGrace() {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId);
+        long justStartedId = createStartedBooking(itemId, bookerId, 1);
+        long longStartedId = createStartedBooking(itemId, bookerId, 60);
+
+        scheduler.rejectExpiredBookings();
+
+        assertThat(getStatus(justStartedId)).isEqualTo("WAITING");
+        assertThat(getStatus(longStartedId)).isEqualTo("REJECTED");
+    }
+
+    private long createStartedBooking(long itemId, long bookerId, int minutesAgo) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = book(itemId, bookerId, start, start.plusDays(1));
+        jdbcTemplate.update("update bookings set start_date = now() - ? * interval '1 minute' where id = ?",
+                minutesAgo, bookingId);
+        return bookingId;
+    }
+
+    private String getStatus(long bookingId) {
+        return jdbcTemplate.queryForObject("select status from bookings where id = ?", String.class, bookingId);
+    }
+}
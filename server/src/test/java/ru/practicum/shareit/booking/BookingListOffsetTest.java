@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Страница списка бронирований начинается ровно с элемента from, даже если from не кратно size.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingListOffsetTest extends PostgresIntegrationTest {
+    private static final int BOOKINGS = 12;
+
+    private long ownerId;
+    private long bookerId;
+    // от позднего начала к раннему, как в списках
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeAll
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingIds.add(0, book(itemId, bookerId, start.plusDays(i)));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 5", "3, 5", "7, 5", "10, 4", "11, 1"})
+    void bookerListStartsAtFrom(int from, int size) {
+        assertThat(getIds(bookingService.getBookingsByBookerId(bookerId, "ALL", from, size, null, null)))
+                .isEqualTo(expected(from, size));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 5", "3, 5", "7, 5", "10, 4", "11, 1"})
+    void ownerListStartsAtFrom(int from, int size) {
+        assertThat(getIds(bookingService.getBookingsByOwnerId(ownerId, "ALL", from, size, null, null)))
+                .isEqualTo(expected(from, size));
+    }
+
+    private List<Long> expected(int from, int size) {
+        return bookingIds.subList(from, Math.min(from + size, BOOKINGS));
+    }
+
+    private static List<Long> getIds(List<BookingDto> bookings) {
+        return bookings.stream()
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.BenchmarkDatabase;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingMapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнивает чтение страницы бронирований автора проекцией в BookingDto с прежним путем через сущности:
+ * Booking вместе с автором и вещью загружается в контекст персистентности и затем копируется в BookingDto.
+ * Оба варианта выполняются в транзакции только для чтения, как в BookingServiceImpl. Распределение памяти
+ * на операцию показывает профилировщик gc (метрика gc.alloc.rate.norm).
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=BookingListReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingListReadBenchmark {
+    private static final int BOOKINGS = 2000;
+    private static final int ITEMS = 100;
+    private static final String ENTITY_QUERY = "select b from Booking b join fetch b.booker u join fetch b.item i " +
+            "where u.id = :bookerId order by b.start desc, b.id desc";
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingStorage bookingStorage;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private long bookerId;
+    private Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        bookingStorage = context.getBean(BookingStorage.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        page = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String prefix = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into users (name, email) values ('booker', ? || '-booker@mail.ru'), " +
+                "('owner', ? || '-owner@mail.ru')", prefix, prefix);
+        bookerId = jdbcTemplate.queryForObject("select id from users where email = ? || '-booker@mail.ru'",
+                Long.class, prefix);
+        jdbcTemplate.update("insert into items (name, description, available, user_id) " +
+                "select 'Дрель ' || g, 'Аккумуляторная дрель', true, u.id from generate_series(1, ?) g " +
+                "join users u on u.email = ? || '-owner@mail.ru'", ITEMS, prefix);
+        jdbcTemplate.update("insert into bookings (status, item_id, user_id, start_date, end_date) " +
+                "select 'APPROVED', i.id, ?, timestamp '2030-01-01' + g * interval '1 day', " +
+                "timestamp '2030-01-01' + g * interval '1 day' + interval '1 hour' " +
+                "from generate_series(1, ?) g join (select id, row_number() over (order by id) - 1 as n from items " +
+                "where user_id = (select id from users where email = ? || '-owner@mail.ru')) i on i.n = g % ?",
+                bookerId, BOOKINGS, prefix, ITEMS);
+        jdbcTemplate.update("analyze");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> projection() {
+        return readOnly.execute(status -> bookingStorage.findByBooker_Id(bookerId, page).getContent());
+    }
+
+    @Benchmark
+    public List<BookingDto> entities() {
+        return readOnly.execute(status -> entityManager.createQuery(ENTITY_QUERY, Booking.class)
+                .setParameter("bookerId", bookerId)
+                .setMaxResults(pageSize)
+                .getResultStream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.SearchingState;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бюджет запросов списков бронирований: проверка пользователя и одна выборка страницы вместе с автором, вещью
+ * и запросом вещи, сколько бы бронирований ни попало на страницу.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingStatementBudgetTest extends PostgresIntegrationTest {
+    private static final int ITEMS = 12;
+    private static final int BOOKINGS_PER_ITEM = 3;
+    private static final long LIST_STATEMENTS = 2;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeAll
+    void createData() {
+        ownerId = createUser();
+        bookerId = createUser();
+        long requestorId = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < ITEMS; i++) {
+            long requestId = itemRequestService.createItemRequest(requestorId,
+                    new CreateItemRequestDto(unique("Нужна дрель"))).getId();
+            long itemId = createItem(ownerId, requestId);
+
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime bookingStart = start.plusDays(i * BOOKINGS_PER_ITEM + j);
+                bookingIds.add(book(itemId, bookerId, bookingStart));
+            }
+        }
+
+        // бронирования во всех состояниях, чтобы каждая выборка возвращала строки
+        for (int i = 0; i < bookingIds.size(); i++) {
+            long bookingId = bookingIds.get(i);
+
+            switch (i % 4) {
+                case 0:
+                    jdbcTemplate.update("update bookings set start_date = start_date - interval '200 days', " +
+                            "end_date = end_date - interval '200 days' where id = ?", bookingId);
+                    break;
+                case 1:
+                    jdbcTemplate.update("update bookings set start_date = now() - interval '1 hour', " +
+                            "end_date = now() + interval '1 hour' where id = ?", bookingId);
+                    break;
+                case 2:
+                    jdbcTemplate.update("update bookings set status = 'REJECTED' where id = ?", bookingId);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    static Stream<Arguments> statesAndSizes() {
+        return Stream.of(SearchingState.values())
+                .flatMap(state -> Stream.of(1, 5, 50).map(size -> Arguments.of(state.name(), size)));
+    }
+
+    @Test
+    void fullPageFitsBudget() {
+        List<BookingDto> bookings = new ArrayList<>();
+        StatementCount count = countStatements(() ->
+                bookings.addAll(bookingService.getBookingsByOwnerId(ownerId, "ALL", 0, bookingIds.size(), null, null)));
+
+        assertThat(bookings).hasSize(bookingIds.size());
+        assertThat(count.getStatements()).isEqualTo(LIST_STATEMENTS);
+    }
+
+    @ParameterizedTest
+    @MethodSource("statesAndSizes")
+    void bookerListFitsBudget(String state, int size) {
+        assertBudget(() -> bookingService.getBookingsByBookerId(bookerId, state, 0, size, null, null));
+        assertBudget(() -> bookingService.getBookingsByBookerId(bookerId, state, 0, size,
+                LocalDateTime.now().plusYears(1), Long.MAX_VALUE));
+    }
+
+    @ParameterizedTest
+    @MethodSource("statesAndSizes")
+    void ownerListFitsBudget(String state, int size) {
+        assertBudget(() -> bookingService.getBookingsByOwnerId(ownerId, state, 0, size, null, null));
+        assertBudget(() -> bookingService.getBookingsByOwnerId(ownerId, state, 0, size,
+                LocalDateTime.now().plusYears(1), Long.MAX_VALUE));
+    }
+
+    private void assertBudget(Supplier<List<BookingDto>> listing) {
+        List<BookingDto> bookings = new ArrayList<>();
+        StatementCount count = countStatements(() -> bookings.addAll(listing.get()));
+
+        assertThat(count.getStatements()).isEqualTo(LIST_STATEMENTS);
+        assertThat(bookings).allSatisfy(booking -> {
+            assertThat(booking.getBooker().getId()).isEqualTo(bookerId);
+            assertThat(booking.getItem().getRequestId()).isNotNull();
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пересчет сводки бронирований и чтение устаревших сводок в списке вещей владельца читают бронирования всех вещей
+ * одним запросом, а не отдельным запросом на каждую вещь.
+ */
+class ItemBookingSummaryQueryCountTest extends PostgresIntegrationTest {
+    @Autowired
+    private ItemBookingSummaryManager summaryManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+    private long ownerId;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void refreshReadsBookingsOnce(int items) {
+        createStartedNextBookings(items);
+        Map<String, Object> before = getSummary(itemIds.get(0));
+
+        StatementCount count = countStatements(() -> transactionTemplate.executeWithoutResult(status ->
+                summaryManager.onBookingsApproved(itemIds)));
+
+        // блокировка вещей, их сводки и бронирования, затем по одному обновлению сводки на вещь
+        assertThat(count.getStatements()).isEqualTo(3 + items);
+
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> summary = getSummary(itemIds.get(i));
+            assertThat(summary).containsEntry("last_booking_id", bookingIds.get(i));
+            assertThat(summary.get("next_booking_id")).isNull();
+        }
+
+        assertThat((Long) getSummary(itemIds.get(0)).get("version")).isEqualTo((Long) before.get("version") + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void staleSummariesAreReadOnce(int items) {
+        createStartedNextBookings(items);
+        List<ItemWithBookingDto> result = new ArrayList<>();
+
+        StatementCount count = countStatements(() -> result.addAll(itemService.getUsersItems(ownerId, 0, items)));
+
+        // страница вещей, последние отзывы, сводки и бронирования вещей с устаревшими сводками
+        assertThat(count.getStatements()).isEqualTo(4);
+        assertThat(result).hasSize(items);
+
+        for (int i = 0; i < items; i++) {
+            assertThat(result.get(i).getLastBooking().getId()).isEqualTo(bookingIds.get(i));
+            assertThat(result.get(i).getNextBooking()).isNull();
+        }
+    }
+
+    /**
+     * У каждой вещи одно подтвержденное бронирование, которое сводка считает следующим, хотя оно уже началось.
+     */
+    private void createStartedNextBookings(int items) {
+        ownerId = createUser();
+        long bookerId = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < items; i++) {
+            long itemId = createItem(ownerId);
+            long bookingId = book(itemId, bookerId, start, start.plusDays(1));
+            bookingService.setBookingStatus(ownerId, bookingId, true);
+            itemIds.add(itemId);
+            bookingIds.add(bookingId);
+        }
+
+        jdbcTemplate.update("update bookings set start_date = now() - interval '1 minute' where id in (" +
+                "select next_booking_id from item_booking_summary where item_id in (select id from items " +
+                "where user_id = ?))", ownerId);
+        jdbcTemplate.update("update item_booking_summary set next_start = now() - interval '1 minute' " +
+                "where item_id in (select id from items where user_id = ?)", ownerId);
+    }
+
+    private Map<String, Object> getSummary(long itemId) {
+        return jdbcTemplate.queryForMap("select last_booking_id, next_booking_id, version " +
+                "from item_booking_summary where item_id = ?", itemId);
+    }
+}
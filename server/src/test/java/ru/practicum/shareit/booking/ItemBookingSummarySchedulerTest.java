@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Список вещей владельца не изменяет устаревшую сводку бронирований, но показывает актуальные бронирования;
+ * сводку обновляет планировщик.
+ */
+class ItemBookingSummarySchedulerTest extends PostgresIntegrationTest {
+    @Autowired
+    private ItemBookingSummaryScheduler scheduler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void startedNextBookingIsRefreshedBySchedulerOnly() {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = book(itemId, bookerId, start, start.plusDays(1));
+        bookingService.setBookingStatus(ownerId, bookingId, true);
+        assertThat(getSummary(itemId)).containsEntry("next_booking_id", bookingId);
+
+        // следующее бронирование началось
+        jdbcTemplate.update("update bookings set start_date = now() - interval '1 minute' where id = ?", bookingId);
+        jdbcTemplate.update("update item_booking_summary set next_start = now() - interval '1 minute' " +
+                "where item_id = ?", itemId);
+
+        ItemWithBookingDto item = itemService.getUsersItems(ownerId, 0, 10).get(0);
+        assertThat(item.getLastBooking().getId()).isEqualTo(bookingId);
+        assertThat(item.getNextBooking()).isNull();
+        assertThat(getSummary(itemId)).containsEntry("next_booking_id", bookingId);
+
+        scheduler.refreshStartedSummaries();
+
+        Map<String, Object> summary = getSummary(itemId);
+        assertThat(summary).containsEntry("last_booking_id", bookingId);
+        assertThat(summary.get("next_booking_id")).isNull();
+        assertThat(summary.get("next_start")).isNull();
+    }
+
+    private Map<String, Object> getSummary(long itemId) {
+        return jdbcTemplate.queryForMap("select last_booking_id, next_booking_id, next_start " +
+                "from item_booking_summary where item_id = ?", itemId);
+    }
+}
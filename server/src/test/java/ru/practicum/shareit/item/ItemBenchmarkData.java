@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Вещи для бенчмарков поиска: названия и описания собираются из словаря, так что частые слова встречаются
+ * в десятках тысяч вещей, а модель с номером - в единицах.
+ */
+final class ItemBenchmarkData {
+    static final String[] TOOLS = {"Дрель", "Перфоратор", "Шуруповерт", "Лобзик", "Болгарка", "Рубанок",
+        "Стремянка", "Палатка", "Велосипед", "Самокат", "Гитара", "Проектор", "Пылесос", "Компрессор", "Сварочник",
+        "Генератор"};
+    static final String[] BRANDS = {"Bosch", "Makita", "DeWalt", "Metabo", "Hitachi", "Ryobi", "Stels",
+        "Yamaha", "Epson", "Karcher"};
+    static final String[] WORDS = {"аккумуляторный", "сетевой", "новый", "почти", "как", "в", "комплекте",
+        "кейс", "зарядка", "два", "аккумулятора", "бита", "сверла", "для", "дома", "дачи", "ремонта", "легкий",
+        "мощный", "тихий", "складной", "походный", "без", "царапин", "с", "чехлом", "инструкция", "гарантия"};
+
+    private ItemBenchmarkData() {
+    }
+
+    static List<ItemDto> generate(int count) {
+        List<ItemDto> items = new ArrayList<>(count);
+        Random random = new Random(42);
+
+        for (int i = 0; i < count; i++) {
+            String name = TOOLS[random.nextInt(TOOLS.length)] + " " + BRANDS[random.nextInt(BRANDS.length)] + " " +
+                    random.nextInt(10000);
+            StringBuilder description = new StringBuilder();
+
+            for (int j = 0; j < 6; j++) {
+                description.append(j == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+
+            items.add(new ItemDto(i + 1, name, description.toString(), true, null));
+        }
+
+        return items;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.exception.AlreadyExistException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Отзыв увеличивает счетчик отзывов вещи условным обновлением, которое заодно упорядочивает параллельные отзывы
+ * на нее: повторный отзыв того же автора не проходит даже одновременно с первым.
+ */
+class ItemCommentTest extends PostgresIntegrationTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long itemId;
+    private long authorId;
+
+    @BeforeEach
+    void createData() {
+        long ownerId = createUser();
+        authorId = createUser();
+        itemId = createItem(ownerId);
+        bookingService.setBookingStatus(ownerId, book(itemId, authorId, LocalDateTime.now().plusDays(1)), true);
+        // отзыв можно оставить только после завершенного бронирования
+        jdbcTemplate.update("update bookings set start_date = start_date - interval '10 days', " +
+                "end_date = end_date - interval '10 days' where item_id = ?", itemId);
+    }
+
+    @Test
+    void commentIncrementsCountWithoutSeparateLock() {
+        StatementCount count = countStatements(() -> itemService.createComment(comment(), authorId, itemId));
+
+        // завершенное бронирование, условное обновление счетчика, повторный отзыв, вставка отзыва и имя автора
+        // для ответа; сама вещь не читается
+        assertThat(count.getStatements()).isEqualTo(5);
+        assertThat(count.getEntityLoads(Item.class)).isZero();
+        assertThat(getCommentsCount()).isEqualTo(1);
+    }
+
+    @Test
+    void missingItemIsRejectedAsBadRequest() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.createComment(comment(), authorId, -1));
+    }
+
+    @Test
+    void repeatedCommentKeepsCount() {
+        itemService.createComment(comment(), authorId, itemId);
+
+        assertThrows(AlreadyExistException.class, () -> itemService.createComment(comment(), authorId, itemId));
+        assertThat(getCommentsCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCommentsOfOneAuthorSaveOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CommentDto>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return itemService.createComment(comment(), authorId, itemId);
+                }));
+            }
+
+            start.countDown();
+            int created = 0;
+
+            for (Future<CommentDto> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(AlreadyExistException.class);
+                }
+            }
+
+            assertThat(created).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from comments where item_id = ?", Long.class,
+                itemId)).isEqualTo(1);
+        assertThat(getCommentsCount()).isEqualTo(1);
+    }
+
+    private CommentDto comment() {
+        return new CommentDto(null, unique("Отличная дрель"), null, null);
+    }
+
+    private long getCommentsCount() {
+        return jdbcTemplate.queryForObject("select comments_count from items where id = ?", Long.class, itemId);
+    }
+}
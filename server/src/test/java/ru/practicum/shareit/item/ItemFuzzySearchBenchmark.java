@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает нечеткий поиск ItemSearchIndex.searchFuzzy с перебором всех вещей, для каждой из которых
+ * считается расстояние до ближайшей подстроки названия и описания. Запросы с одной опечаткой разной длины:
+ * короткие отбираются по биграммам, длинные - по триграммам. Для запроса без совпадений проверка не останавливается
+ * досрочно и просматривает списки граммов целиком.
+ * Бюджет: страница из 20 вещей на 1000000 вещей в среднем не дольше 10 мс в одном потоке.
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=ItemFuzzySearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemFuzzySearchBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    private int items;
+
+    @Param({"дриль", "makkita", "перфаратор", "вертолет"})
+    private String query;
+
+    private ItemSearchIndex index;
+    private String[] names;
+    private String[] descriptions;
+
+    @Setup
+    public void setUp() {
+        index = new ItemSearchIndex(null);
+        names = new String[items];
+        descriptions = new String[items];
+        List<ItemDto> generated = ItemBenchmarkData.generate(items);
+
+        for (int i = 0; i < items; i++) {
+            ItemDto item = generated.get(i);
+            index.onItemSaved(ItemSavedEvent.created(item, 1L));
+            names[i] = item.getName().toLowerCase(Locale.ROOT);
+            descriptions[i] = item.getDescription().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> indexFuzzySearch() {
+        return index.searchFuzzy(query, 0, PAGE_SIZE, id -> true);
+    }
+
+    @Benchmark
+    public List<Integer> scanFuzzySearch() {
+        List<Integer> result = new ArrayList<>();
+
+        for (int i = 0; i < items; i++) {
+            if (ItemSearchIndex.matches(query, names[i], true) || ItemSearchIndex.matches(query, descriptions[i], true)) {
+                result.add(i + 1);
+            }
+        }
+
+        return result.subList(0, Math.min(PAGE_SIZE, result.size()));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Индекс поиска обновляется после изменения вещи раньше, чем сбрасывается кэш поиска: поиск, выполненный
+ * параллельно между двумя обработчиками, не оставляет в кэше страницу из старого индекса.
+ */
+class ItemSearchCacheOrderTest extends PostgresIntegrationTest {
+    @SpyBean
+    private ItemSearchIndex searchIndex;
+    @SpyBean
+    private ItemSearchCache searchCache;
+
+    @Test
+    void searchBetweenListenersDoesNotCacheRenamedItem() throws Exception {
+        long ownerId = createUser();
+        String token = unique("перфоратор");
+        long itemId = itemService.createItem(ownerId, new ItemDto(0, "Дрель " + token, "Аккумуляторная", true,
+                null)).getId();
+        assertThat(search(token)).containsExactly(itemId);
+
+        // после каждого из обработчиков изменения вещи другой поток ищет ту же страницу
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            CompletableFuture.runAsync(() -> search(token)).get(10, TimeUnit.SECONDS);
+            return null;
+        }).when(searchIndex).onItemSaved(any());
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            CompletableFuture.runAsync(() -> search(token)).get(10, TimeUnit.SECONDS);
+            return null;
+        }).when(searchCache).onItemSaved(any());
+
+        itemService.updateItem(ownerId, new ItemDto(itemId, "Пила", null, null, null));
+
+        assertThat(search(token)).isEmpty();
+    }
+
+    private List<Long> search(String text) {
+        return itemService.searchItems(text, 0, 10, false, null, null).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.BenchmarkDatabase;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает в PostgreSQL поиск режима TRIGRAM (ilike по GIN-индексам pg_trgm из V5 с ранжированием
+ * по word_similarity) с запросом режима LIKE (upper(...) like upper(...), индексы не используются) на 1000000
+ * вещей. Вещи собираются из того же словаря, что и в ItemBenchmarkData, и создаются один раз: при следующих
+ * запусках на той же базе они переиспользуются.
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=ItemSearchDatabaseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemSearchDatabaseBenchmark {
+    private static final int ITEMS = 1_000_000;
+    private static final String OWNER_EMAIL = "item-search-benchmark@mail.ru";
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param({"дрель", "makita 4821", "вертолет"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private ItemStorage itemStorage;
+    private String pattern;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        itemStorage = context.getBean(ItemStorage.class);
+        pattern = "%" + query + "%";
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into users (name, email) values ('owner', ?) on conflict do nothing", OWNER_EMAIL);
+        long ownerId = jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, OWNER_EMAIL);
+        long items = jdbcTemplate.queryForObject("select count(*) from items where user_id = ?", Long.class, ownerId);
+
+        if (items != ITEMS) {
+            jdbcTemplate.update("delete from items where user_id = ?", ownerId);
+            jdbcTemplate.update("insert into items (name, description, available, user_id) " +
+                    "select (?::text[])[1 + floor(random() * ?)] || ' ' || (?::text[])[1 + floor(random() * ?)] || " +
+                    "' ' || floor(random() * 10000), " +
+                    "(select string_agg((?::text[])[1 + floor(random() * ?)], ' ') " +
+                    "from generate_series(1, 6) w where w > g * 0), true, ? from generate_series(1, ?) g",
+                    ItemBenchmarkData.TOOLS, ItemBenchmarkData.TOOLS.length,
+                    ItemBenchmarkData.BRANDS, ItemBenchmarkData.BRANDS.length,
+                    ItemBenchmarkData.WORDS, ItemBenchmarkData.WORDS.length, ownerId, ITEMS);
+            jdbcTemplate.execute("vacuum analyze items");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> trigram() {
+        return itemStorage.searchAvailableByTrigrams(query, pattern, PAGE).getContent();
+    }
+
+    @Benchmark
+    public List<Item> like() {
+        return itemStorage.findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(
+                query, query, PAGE).getContent();
+    }
+}
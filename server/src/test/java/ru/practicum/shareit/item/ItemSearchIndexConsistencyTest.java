@@ -0,0 +1,172 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utils.OffsetPageRequest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Точный поиск по индексу ItemSearchIndex находит те же вещи, что и запрос режима LIKE к базе, отсортированный
+ * по id: для частей слов, запросов в другом регистре и короче триграммы, в том числе после изменения вещей,
+ * после отката изменений и постранично. Перед каждым тестом индекс перестраивается, потому что другие тесты меняют
+ * вещи в базе напрямую.
+ */
+class ItemSearchIndexConsistencyTest extends PostgresIntegrationTest {
+    private static final int ALL = 10_000;
+    private static final Random RANDOM = new Random();
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long ownerId;
+    private String token;
+
+    @BeforeEach
+    void createData() {
+        ownerId = createUser();
+        token = randomWord();
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void partialWordsMatchDatabase() {
+        createItem("Дрель " + token + "ovich", "Аккумуляторная");
+        createItem("Шуруповерт", "Для " + token);
+
+        assertSameAsDatabase(token, 2);
+        assertSameAsDatabase(token.substring(1, 5), 2);
+        assertSameAsDatabase(token.substring(4) + "ovi", 1);
+        assertSameAsDatabase("рель " + token.substring(0, 3), 1);
+        assertSameAsDatabase("я " + token, 1);
+    }
+
+    @Test
+    void mixedCaseMatchesDatabase() {
+        createItem("ДрЕлЬ " + token.toUpperCase(Locale.ROOT), "Аккумуляторная");
+        createItem("Лобзик", "Почти новый " + alternateCase(token));
+
+        assertSameAsDatabase(token, 2);
+        assertSameAsDatabase(token.toUpperCase(Locale.ROOT), 2);
+        assertSameAsDatabase(alternateCase(token), 2);
+        assertSameAsDatabase("дРеЛь " + token.substring(0, 4), 1);
+        assertSameAsDatabase("ПОЧТИ НОВЫЙ " + token, 1);
+    }
+
+    @Test
+    void shortQueriesMatchDatabase() {
+        long itemId = createItem("Дрель " + token, "Аккумуляторная");
+
+        // короткие запросы находят и вещи других тестов, поэтому сравнивается весь результат
+        assertThat(assertPageSameAsDatabase(token.substring(0, 2), 0, ALL)).contains(itemId);
+        assertThat(assertPageSameAsDatabase(token.substring(3, 5).toUpperCase(Locale.ROOT), 0, ALL)).contains(itemId);
+        assertThat(assertPageSameAsDatabase(token.substring(7), 0, ALL)).contains(itemId);
+    }
+
+    @Test
+    void availabilityTogglesMatchDatabase() {
+        long itemId = createItem("Дрель " + token, "Аккумуляторная");
+        assertSameAsDatabase(token, 1);
+
+        itemService.updateItem(ownerId, new ItemDto(itemId, null, null, false, null));
+        assertSameAsDatabase(token, 0);
+
+        itemService.updateItem(ownerId, new ItemDto(itemId, null, null, true, null));
+        assertSameAsDatabase(token, 1);
+    }
+
+    @Test
+    void renamesMatchDatabase() {
+        String newToken = randomWord();
+        long itemId = createItem("Дрель " + token, "Аккумуляторная");
+
+        itemService.updateItem(ownerId, new ItemDto(itemId, "Пила " + newToken, null, null, null));
+        assertSameAsDatabase(token, 0);
+        assertSameAsDatabase(newToken, 1);
+
+        itemService.updateItem(ownerId, new ItemDto(itemId, null, "Цепная " + token, null, null));
+        assertSameAsDatabase(token, 1);
+        assertSameAsDatabase("пила " + newToken, 1);
+    }
+
+    @Test
+    void rolledBackChangesMatchDatabase() {
+        long itemId = createItem("Дрель " + token, "Аккумуляторная");
+        String newToken = randomWord();
+
+        // индекс получает изменения вещи только после фиксации транзакции
+        transactionTemplate.executeWithoutResult(status -> {
+            createItem("Пила " + newToken, "Цепная");
+            itemService.updateItem(ownerId, new ItemDto(itemId, "Пила " + newToken, null, null, null));
+            status.setRollbackOnly();
+        });
+
+        assertSameAsDatabase(token, 1);
+        assertSameAsDatabase(newToken, 0);
+    }
+
+    @Test
+    void pagesMatchDatabase() {
+        for (int i = 0; i < 7; i++) {
+            createItem("Дрель " + token + " " + i, "Аккумуляторная");
+        }
+
+        for (int from = 0; from <= 7; from++) {
+            assertPageSameAsDatabase(token, from, 3);
+        }
+    }
+
+    private long createItem(String name, String description) {
+        return itemService.createItem(ownerId, new ItemDto(0, name, description, true, null)).getId();
+    }
+
+    private void assertSameAsDatabase(String query, int expectedSize) {
+        assertThat(assertPageSameAsDatabase(query, 0, ALL)).as(query).hasSize(expectedSize);
+    }
+
+    private List<Long> assertPageSameAsDatabase(String query, int from, int size) {
+        List<Long> expected = itemStorage
+                .findByDescriptionContainingAndAvailableTrueOrNameContainingAndAvailableTrueAllIgnoreCase(query, query,
+                        OffsetPageRequest.of(from, size, Sort.by("id")))
+                .map(Item::getId)
+                .getContent();
+        List<Long> actual = searchIndex.search(query, from, size, id -> true).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(actual).as("%s, from = %d, size = %d", query, from, size).isEqualTo(expected);
+        return actual;
+    }
+
+    private static String randomWord() {
+        return RANDOM.ints(8, 'a', 'z' + 1)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+
+    private static String alternateCase(String text) {
+        StringBuilder alternated = new StringBuilder(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            alternated.append(i % 2 == 0 ? Character.toUpperCase(c) : c);
+        }
+
+        return alternated.toString();
+    }
+}
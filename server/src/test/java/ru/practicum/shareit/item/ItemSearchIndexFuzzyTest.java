@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нечеткий поиск с ранней остановкой проверки кандидатов отдает ту же страницу, что и перебор всех доступных вещей
+ * с сортировкой по расстоянию до ближайшей подстроки и id.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchIndexFuzzyTest {
+    private static final int ITEMS = 20_000;
+
+    private final ItemSearchIndex index = new ItemSearchIndex(null);
+    private List<ItemDto> items;
+
+    @BeforeAll
+    void createIndex() {
+        items = ItemBenchmarkData.generate(ITEMS);
+
+        for (ItemDto item : items) {
+            // каждая седьмая вещь недоступна
+            item.setAvailable(item.getId() % 7 != 0);
+            index.onItemSaved(ItemSavedEvent.created(item, 1L));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"дриль, 0, 20", "дриль, 35, 20", "дрель, 0, 20", "makkita, 0, 20", "makkita, 100, 50",
+        "перфаратор, 0, 20", "перфаратор, 0, 5000", "bosh 12, 0, 30", "аккумулятр, 10, 10", "вертолет, 0, 20"})
+    void pageMatchesScan(String query, int from, int size) {
+        assertSamePage(query, from, size, id -> true);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"дриль, 0, 20", "makkita, 40, 20", "перфаратор, 0, 20"})
+    void filteredPageMatchesScan(String query, int from, int size) {
+        assertSamePage(query, from, size, id -> id % 3 != 0);
+    }
+
+    private void assertSamePage(String query, int from, int size, LongPredicate filter) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        int maxDistance = lowerQuery.length() <= 6 ? 1 : 2;
+        List<Long> expected = items.stream()
+                .filter(item -> item.getAvailable() && filter.test(item.getId()))
+                .map(item -> new long[]{distance(lowerQuery, item), item.getId()})
+                .filter(found -> found[0] <= maxDistance)
+                .sorted(Comparator.<long[]>comparingLong(found -> found[0]).thenComparingLong(found -> found[1]))
+                .skip(from)
+                .limit(size)
+                .map(found -> found[1])
+                .collect(Collectors.toList());
+
+        List<Long> actual = index.searchFuzzy(query, from, size, filter).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(actual).as("%s, from = %d, size = %d", query, from, size).isEqualTo(expected);
+    }
+
+    private static int distance(String query, ItemDto item) {
+        return Math.min(substringDistance(query, item.getName().toLowerCase(Locale.ROOT)),
+                substringDistance(query, item.getDescription().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Расстояние до ближайшей подстроки по алгоритму Селлерса: начало и конец подстроки в тексте свободны.
+     */
+    private static int substringDistance(String query, String text) {
+        int[] previous = new int[text.length() + 1];
+        int[] current = new int[text.length() + 1];
+
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+
+            for (int j = 1; j <= text.length(); j++) {
+                int cost = query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Arrays.stream(previous).min().orElseThrow();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает подсказки названий по словарю суффиксов ItemSearchIndex с перебором всех названий, которым
+ * запрос LIKE по началу названия или слова в нем был бы и в базе данных: подсказки упорядочены по названию,
+ * поэтому перебор не может остановиться на первых совпадениях.
+ * Запуск: mvn -pl server -Pbenchmark test -DskipTests -Dbenchmark=ItemSuggestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemSuggestBenchmark {
+    private static final int SIZE = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    private int items;
+
+    @Param({"дре", "makita 48", "верт"})
+    private String prefix;
+
+    private ItemSearchIndex index;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        index = new ItemSearchIndex(null);
+        names = new String[items];
+        List<ItemDto> generated = ItemBenchmarkData.generate(items);
+
+        for (int i = 0; i < items; i++) {
+            ItemDto item = generated.get(i);
+            index.onItemSaved(ItemSavedEvent.created(item, 1L));
+            names[i] = item.getName();
+        }
+    }
+
+    @Benchmark
+    public List<String> indexSuggest() {
+        return index.suggest(prefix, SIZE);
+    }
+
+    @Benchmark
+    public List<String> scanSuggest() {
+        TreeSet<String> matches = new TreeSet<>();
+
+        for (String name : names) {
+            String lowerCase = name.toLowerCase(Locale.ROOT);
+
+            if (lowerCase.startsWith(prefix) || lowerCase.contains(" " + prefix)) {
+                matches.add(name);
+
+                if (matches.size() > SIZE) {
+                    matches.pollLast();
+                }
+            }
+        }
+
+        return new ArrayList<>(matches);
+    }
+}
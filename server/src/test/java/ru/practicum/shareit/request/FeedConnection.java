@@ -0,0 +1,148 @@
+package ru.practicum.shareit.request;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Подписчик потока запросов на обычном сокете. Запрос идет по HTTP/1.0, поэтому ответ не разбит на чанки
+ * и заканчивается закрытием соединения. Маленький буфер приема позволяет подписчику, который не читает поток,
+ * быстро заполнить сокет и задержать отправку ему событий.
+ */
+class FeedConnection implements Closeable {
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
+    private static final int SMALL_RECEIVE_BUFFER = 4096;
+
+    private final Socket socket = new Socket();
+    private final BufferedReader reader;
+
+    private FeedConnection(int port, long userId, Long lastEventId, boolean slow) throws IOException {
+        if (slow) {
+            socket.setReceiveBufferSize(SMALL_RECEIVE_BUFFER);
+        }
+
+        socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+        socket.connect(new InetSocketAddress("localhost", port));
+        String request = "GET /requests/stream HTTP/1.0\r\n" +
+                "X-Sharer-User-Id: " + userId + "\r\n" +
+                "Accept: text/event-stream\r\n" +
+                (lastEventId == null ? "" : "Last-Event-ID: " + lastEventId + "\r\n") +
+                "\r\n";
+        OutputStream output = socket.getOutputStream();
+        output.write(request.getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+        reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+        // заголовки отправляются, когда подписка уже зарегистрирована
+        String status = reader.readLine();
+
+        if (status == null || !status.contains(" 200 ")) {
+            throw new IOException("Неожиданный ответ: " + status);
+        }
+
+        String header;
+
+        do {
+            header = reader.readLine();
+        } while (header != null && !header.isEmpty());
+    }
+
+    static FeedConnection open(int port, long userId) throws IOException {
+        return new FeedConnection(port, userId, null, false);
+    }
+
+    static FeedConnection open(int port, long userId, long lastEventId) throws IOException {
+        return new FeedConnection(port, userId, lastEventId, false);
+    }
+
+    static FeedConnection openSlow(int port, long userId) throws IOException {
+        return new FeedConnection(port, userId, null, true);
+    }
+
+    /**
+     * Читает следующее событие, пропуская комментарии, или возвращает null, если сервер закрыл соединение.
+     */
+    Event readEvent() throws IOException {
+        String id = null;
+        String name = null;
+        StringBuilder data = null;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data != null) {
+                    return new Event(id, name, data.toString());
+                }
+
+                continue;
+            }
+
+            int separator = line.indexOf(':');
+            String field = separator == -1 ? line : line.substring(0, separator);
+            String value = separator == -1 ? "" : line.substring(separator + 1);
+
+            switch (field) {
+                case "id":
+                    id = value;
+                    break;
+                case "event":
+                    name = value;
+                    break;
+                case "data":
+                    data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return null;
+    }
+
+    List<Event> readToEnd() throws IOException {
+        List<Event> events = new ArrayList<>();
+        Event event;
+
+        while ((event = readEvent()) != null) {
+            events.add(event);
+        }
+
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    static class Event {
+        private final String id;
+        private final String name;
+        private final String data;
+
+        Event(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        long getId() {
+            return Long.parseLong(id);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поток запросов через настоящее HTTP-соединение: пропущенные события повторяются по Last-Event-ID, собственные
+ * события пользователю не присылаются, а подписчик, который не читает поток, отключается при переполнении очереди
+ * или по таймауту отправки и не задерживает доставку остальным. Событие с длинным описанием заполняет буферы
+ * сокета медленного подписчика, и отправка ему зависает.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.request.feed.send-timeout=PT2S",
+        "shareit.request.feed.buffer-size=4",
+        "shareit.request.feed.delivery-threads=1",
+        "shareit.request.feed.send-threads=4"
+})
+class ItemRequestFeedTest extends PostgresIntegrationTest {
+    private static final int LARGE_DESCRIPTION_LENGTH = 8 * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long subscriberId;
+    private long requestorId;
+
+    @BeforeEach
+    void createUsers() {
+        subscriberId = createUser();
+        requestorId = createUser();
+    }
+
+    @Test
+    void ownEventsAreNotEchoed() throws IOException {
+        try (FeedConnection subscriber = FeedConnection.open(port, subscriberId);
+             FeedConnection requestor = FeedConnection.open(port, requestorId)) {
+            long ownRequestId = createRequest(subscriberId, "Нужна дрель");
+            long otherRequestId = createRequest(requestorId, "Нужна пила");
+
+            // события приходят по порядку, поэтому собственный запрос пришел бы первым
+            assertThat(getRequestId(subscriber.readEvent())).isEqualTo(otherRequestId);
+            assertThat(getRequestId(requestor.readEvent())).isEqualTo(ownRequestId);
+        }
+    }
+
+    @Test
+    void lastEventIdReplaysMissedEvents() throws IOException {
+        long seenEventId;
+
+        try (FeedConnection subscriber = FeedConnection.open(port, subscriberId)) {
+            createRequest(requestorId, "Нужна дрель");
+            seenEventId = subscriber.readEvent().getId();
+        }
+
+        long firstMissedId = createRequest(requestorId, "Нужна пила");
+        long secondMissedId = createRequest(requestorId, "Нужен молоток");
+
+        try (FeedConnection subscriber = FeedConnection.open(port, subscriberId, seenEventId)) {
+            FeedConnection.Event firstMissed = subscriber.readEvent();
+            FeedConnection.Event secondMissed = subscriber.readEvent();
+
+            assertThat(firstMissed.getId()).isGreaterThan(seenEventId);
+            assertThat(secondMissed.getId()).isGreaterThan(firstMissed.getId());
+            assertThat(List.of(getRequestId(firstMissed), getRequestId(secondMissed)))
+                    .containsExactly(firstMissedId, secondMissedId);
+        }
+    }
+
+    @Test
+    void overflowingSubscriberIsDisconnected() throws IOException {
+        try (FeedConnection slow = FeedConnection.openSlow(port, subscriberId)) {
+            long largeRequestId = createRequest(requestorId, "x".repeat(LARGE_DESCRIPTION_LENGTH));
+
+            // очередь из 4 событий переполняется, пока отправка первого ждет чтения, а таймаут еще не истек
+            for (int i = 0; i < 5; i++) {
+                createRequest(requestorId, "Нужна дрель");
+            }
+
+            assertThat(getRequestIds(slow.readToEnd())).containsExactly(largeRequestId);
+        }
+    }
+
+    @Test
+    void stalledSendIsBoundedBySendTimeout() throws IOException {
+        long readerId = createUser();
+
+        try (FeedConnection slow = FeedConnection.openSlow(port, subscriberId);
+             FeedConnection reader = FeedConnection.open(port, readerId)) {
+            long largeRequestId = createRequest(requestorId, "x".repeat(LARGE_DESCRIPTION_LENGTH));
+            assertThat(getRequestId(reader.readEvent())).isEqualTo(largeRequestId);
+
+            // единственный поток доставки не ждет зависшую отправку дольше таймаута, и событие доходит раньше,
+            // чем истечет таймаут чтения подписчика
+            long nextRequestId = createRequest(requestorId, "Нужна пила");
+            assertThat(getRequestId(reader.readEvent())).isEqualTo(nextRequestId);
+
+            assertThat(getRequestIds(slow.readToEnd())).containsExactly(largeRequestId);
+        }
+    }
+
+    private long createRequest(long userId, String description) {
+        return itemRequestService.createItemRequest(userId, new CreateItemRequestDto(description)).getId();
+    }
+
+    private long getRequestId(FeedConnection.Event event) throws IOException {
+        assertThat(event).isNotNull();
+        assertThat(event.getName()).isEqualTo("request");
+        return objectMapper.readTree(event.getData()).get("id").asLong();
+    }
+
+    private List<Long> getRequestIds(List<FeedConnection.Event> events) throws IOException {
+        List<Long> ids = new ArrayList<>();
+
+        for (FeedConnection.Event event : events) {
+            ids.add(getRequestId(event));
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Списки запросов с ответами выполняют одно и то же число запросов к базе при любом числе запросов вещей:
+ * ответы на все запросы страницы читаются одним запросом, а не отдельным запросом на каждый.
+ */
+class ItemRequestQueryCountTest extends PostgresIntegrationTest {
+    private static final int ANSWERS_PER_REQUEST = 2;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void getUserRequestsRunsConstantStatements(int requests) {
+        long requestorId = createAnsweredRequests(requests);
+        List<ItemRequestWithAnswersDto> result = new ArrayList<>();
+
+        StatementCount count = countStatements(() -> result.addAll(itemRequestService.getUserRequests(requestorId)));
+
+        // проверка пользователя, запросы пользователя и ответы на них
+        assertThat(count.getStatements()).isEqualTo(3);
+        assertAnswered(result, requests);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void getRequestsRunsConstantStatements(int requests) {
+        createAnsweredRequests(requests);
+        long viewerId = createUser();
+        List<ItemRequestWithAnswersDto> result = new ArrayList<>();
+
+        // созданные последними запросы первыми попадают на страницу
+        StatementCount count = countStatements(() ->
+                result.addAll(itemRequestService.getRequests(viewerId, 0, requests)));
+
+        // проверка пользователя, страница запросов и ответы на них
+        assertThat(count.getStatements()).isEqualTo(3);
+        assertAnswered(result, requests);
+    }
+
+    private long createAnsweredRequests(int requests) {
+        long requestorId = createUser();
+        long ownerId = createUser();
+
+        for (int i = 0; i < requests; i++) {
+            long requestId = itemRequestService.createItemRequest(requestorId,
+                    new CreateItemRequestDto(unique("Нужна дрель"))).getId();
+
+            for (int j = 0; j < ANSWERS_PER_REQUEST; j++) {
+                createItem(ownerId, requestId);
+            }
+        }
+
+        return requestorId;
+    }
+
+    private static void assertAnswered(List<ItemRequestWithAnswersDto> result, int requests) {
+        assertThat(result).hasSize(requests);
+        assertThat(result).allSatisfy(request -> assertThat(request.getItems()).hasSize(ANSWERS_PER_REQUEST));
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Вещи подбираются к новому запросу в транзакции его создания, а когда на запрос отвечают вещью,
+ * подобранные к нему вещи удаляются.
+ */
+class RequestMatchPruningTest extends PostgresIntegrationTest {
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void answeringRequestDeletesItsMatches() {
+        long requestorId = createUser();
+        long ownerId = createUser();
+        String word = unique("перфоратор");
+        itemService.createItem(ownerId, new ItemDto(0, word, "Мощный " + word, true, null));
+        long requestId = itemRequestService.createItemRequest(requestorId,
+                new CreateItemRequestDto("Нужен " + word)).getId();
+        assertThat(countMatches(requestId)).isPositive();
+
+        itemService.createItem(ownerId, new ItemDto(0, word, "Отдам " + word, true, requestId));
+
+        assertThat(countMatches(requestId)).isZero();
+    }
+
+    private long countMatches(long requestId) {
+        return jdbcTemplate.queryForObject("select count(*) from request_matches where request_id = ?", Long.class,
+                requestId);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.PostgresIntegrationTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestMatchDto;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Новая доступная вещь подбирается к открытым запросам, а новый запрос - к доступным вещам; недоступные вещи
+ * и вещи автора запроса не подбираются ни в одном из направлений.
+ */
+class RequestMatcherTest extends PostgresIntegrationTest {
+    private static final Random RANDOM = new Random();
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    private long requestorId;
+    private long ownerId;
+    private String word;
+
+    @BeforeEach
+    void createData() {
+        requestorId = createUser();
+        ownerId = createUser();
+        // счетчик unique отбрасывается при разбиении на слова, поэтому слово случайное
+        word = RANDOM.ints(10, 'a', 'z' + 1)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+
+    @Test
+    void newItemIsMatchedToOpenRequest() {
+        long requestId = createRequest();
+        long itemId = createItem(ownerId, true);
+
+        assertThat(itemRequestService.getRequestMatches(requestorId, 0, 10))
+                .extracting(RequestMatchDto::getRequestId, RequestMatchDto::getItemId)
+                .containsExactly(tuple(requestId, itemId));
+        assertThat(itemRequestService.getItemMatches(ownerId, 0, 10))
+                .extracting(RequestMatchDto::getRequestId, RequestMatchDto::getItemId)
+                .containsExactly(tuple(requestId, itemId));
+    }
+
+    @Test
+    void newRequestIsMatchedToAvailableItem() {
+        long itemId = createItem(ownerId, true);
+        long requestId = createRequest();
+
+        assertThat(itemRequestService.getRequestMatches(requestorId, 0, 10))
+                .extracting(RequestMatchDto::getRequestId, RequestMatchDto::getItemId)
+                .containsExactly(tuple(requestId, itemId));
+        assertThat(itemRequestService.getItemMatches(ownerId, 0, 10))
+                .extracting(RequestMatchDto::getRequestId, RequestMatchDto::getItemId)
+                .containsExactly(tuple(requestId, itemId));
+    }
+
+    @Test
+    void unavailableItemIsNotMatched() {
+        createRequest();
+        createItem(ownerId, false);
+        createRequest();
+
+        assertThat(itemRequestService.getRequestMatches(requestorId, 0, 10)).isEmpty();
+        assertThat(itemRequestService.getItemMatches(ownerId, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void requestorsOwnItemIsNotMatched() {
+        createRequest();
+        createItem(requestorId, true);
+        createRequest();
+
+        assertThat(itemRequestService.getRequestMatches(requestorId, 0, 10)).isEmpty();
+        assertThat(itemRequestService.getItemMatches(requestorId, 0, 10)).isEmpty();
+    }
+
+    private long createRequest() {
+        return itemRequestService.createItemRequest(requestorId, new CreateItemRequestDto("Нужен " + word)).getId();
+    }
+
+    private long createItem(long userId, boolean available) {
+        return itemService.createItem(userId, new ItemDto(0, word, "Мощный " + word, available, null)).getId();
+    }
+}